@@ -0,0 +1,100 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.audit.AuditEventType;
+import com.infosec.secureapi.audit.AuditLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Стоимость записи события аудита в потоке запроса: AuditLog.record с работающим писателем,
+ * который пишет в сегменты во временном каталоге.
+ *
+ * record - события подряд без паузы: писатель может не успевать, и часть событий отбрасывается
+ * (доля печатается после каждой итерации). recordPaced - между событиями ~work токенов работы
+ * (Blackhole.consumeCPU), как в потоке запроса; его время минус pace - стоимость события,
+ * когда писатель успевает. Многопоточный замер: -t 4.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLogBenchmark {
+    private static final long USER_ID = 42;
+
+    @Param({"none", "batch"})
+    public String fsync;
+
+    @Param({"1000"})
+    public long work;
+
+    private Path directory;
+    private AuditLog auditLog;
+    private long written;
+    private long dropped;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        auditLog = new AuditLog(true, directory.toString(), 64L * 1024 * 1024, 65536, fsync, 1000);
+        auditLog.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long nowWritten = auditLog.getWrittenCount();
+        long nowDropped = auditLog.getDroppedCount();
+        long iterationDropped = nowDropped - dropped;
+        long iterationTotal = nowWritten - written + iterationDropped;
+        System.out.printf(" [written %d, dropped %d (%.1f%%)]", nowWritten - written, iterationDropped,
+                iterationTotal == 0 ? 0.0 : 100.0 * iterationDropped / iterationTotal);
+        written = nowWritten;
+        dropped = nowDropped;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        auditLog.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean record() {
+        return auditLog.record(AuditEventType.LOGIN, USER_ID, "benchmark-user", 0, "203.0.113.7");
+    }
+
+    @Benchmark
+    public boolean recordPaced() {
+        Blackhole.consumeCPU(work);
+        return auditLog.record(AuditEventType.LOGIN, USER_ID, "benchmark-user", 0, "203.0.113.7");
+    }
+
+    @Benchmark
+    public void pace() {
+        Blackhole.consumeCPU(work);
+    }
+}
@@ -0,0 +1,47 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.service.DataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость DataService.escapeHtml в зависимости от длины строки и доли спецсимволов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapeHtmlBenchmark {
+    @Param({"16", "500", "2000"})
+    public int length;
+
+    // plain - только буквы и пробелы, mixed - немного разметки и кириллица, hostile - в основном спецсимволы
+    @Param({"plain", "mixed", "hostile"})
+    public String charMix;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        input = TextGenerator.generate(new Random(42), length, charMix);
+    }
+
+    @Benchmark
+    public String escapeHtml() {
+        return DataService.escapeHtml(input);
+    }
+}
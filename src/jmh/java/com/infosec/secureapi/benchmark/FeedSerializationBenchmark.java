@@ -0,0 +1,109 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.dto.DataFeedPage;
+import com.infosec.secureapi.dto.DataItemResponse;
+import com.infosec.secureapi.dto.DataItemView;
+import com.infosec.secureapi.service.DataService;
+import com.infosec.secureapi.service.ItemJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конвертация проекций в DTO и сериализация страницы ленты Jackson'ом.
+ * escapeOnRead воспроизводит прежнее экранирование при каждом чтении,
+ * preEscaped - текущий путь с экранированием при записи,
+ * cachedFragments - сборка страницы из JSON элементов, уже лежащих в ItemJsonCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedSerializationBenchmark {
+    @Param({"10", "50", "200"})
+    public int pageSize;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final ItemJsonCache itemJsonCache = new ItemJsonCache(jsonMapper, 64L * 1024 * 1024);
+    private final JsonMapper pageMapper = jsonMapper.rebuild().addModule(itemJsonCache.module()).build();
+    private List<DataItemView> rawViews;
+    private List<DataItemView> escapedViews;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rawViews = new ArrayList<>(pageSize);
+        escapedViews = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            DataItemView raw = new DataItemView(
+                    (long) i,
+                    TextGenerator.generate(random, 80, "mixed"),
+                    TextGenerator.generate(random, 1000, "mixed"),
+                    "user_" + (i % 10),
+                    now.minusSeconds(i)
+            );
+            rawViews.add(raw);
+            escapedViews.add(new DataItemView(
+                    raw.getId(),
+                    DataService.escapeHtml(raw.getTitle()),
+                    DataService.escapeHtml(raw.getContent()),
+                    DataService.escapeHtml(raw.getUsername()),
+                    raw.getCreatedAt()
+            ));
+        }
+        // Прогрев кэша фрагментов: в ленте повторно запрашиваются уже отданные элементы
+        pageMapper.writeValueAsBytes(new DataFeedPage(convertPreEscaped(), "cursor"));
+    }
+
+    @Benchmark
+    public List<DataItemResponse> convertEscapeOnRead() {
+        List<DataItemResponse> items = new ArrayList<>(rawViews.size());
+        for (DataItemView view : rawViews) {
+            items.add(new DataItemResponse(
+                    view.getId(),
+                    DataService.escapeHtml(view.getTitle()),
+                    DataService.escapeHtml(view.getContent()),
+                    DataService.escapeHtml(view.getUsername()),
+                    view.getCreatedAt()
+            ));
+        }
+        return items;
+    }
+
+    @Benchmark
+    public List<DataItemResponse> convertPreEscaped() {
+        List<DataItemResponse> items = new ArrayList<>(escapedViews.size());
+        for (DataItemView view : escapedViews) {
+            items.add(DataService.convertToResponse(view));
+        }
+        return items;
+    }
+
+    @Benchmark
+    public byte[] convertAndSerializePage() {
+        return jsonMapper.writeValueAsBytes(new DataFeedPage(convertPreEscaped(), "cursor"));
+    }
+
+    @Benchmark
+    public byte[] convertAndSerializePageFromCachedFragments() {
+        return pageMapper.writeValueAsBytes(new DataFeedPage(convertPreEscaped(), "cursor"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.security.AuthenticatedUser;
+import com.infosec.secureapi.security.VerifiedToken;
+import com.infosec.secureapi.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность выпуска и проверки токенов.
+ * cacheSize=0 - полная проверка подписи на каждый вызов, иначе повторный токен берется из кэша.
+ * verifyDistinct - поток разных токенов, вдвое больше емкости кэша: каждый вызов - промах
+ * и вставка с вытеснением из заполненного кэша.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "benchmark-secret-key-with-at-least-256-bits-of-entropy-000000";
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    private JwtService jwtService;
+    private AuthenticatedUser user;
+    private String token;
+    private String[] distinctTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 86_400_000L, cacheSize, 60_000L);
+        user = new AuthenticatedUser(42L, "benchmark_user", null, 0);
+        token = jwtService.generateToken(user);
+        distinctTokens = new String[Math.max(2 * cacheSize, 1)];
+        for (int i = 0; i < distinctTokens.length; i++) {
+            distinctTokens[i] = jwtService.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String mint() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyDistinct() {
+        String current = distinctTokens[next];
+        next = next + 1 == distinctTokens.length ? 0 : next + 1;
+        return jwtService.verifyToken(current);
+    }
+}
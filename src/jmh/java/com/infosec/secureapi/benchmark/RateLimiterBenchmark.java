@@ -0,0 +1,54 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.security.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки лимита на один запрос.
+ * keys - число различных клиентов; каждый вызов берет случайного клиента, как при смешанном трафике.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+    @Param({"1", "10000", "100000"})
+    public int keys;
+
+    private RateLimiter limiter;
+    private String[] clients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Лимит не достигается: измеряется путь разрешенного запроса
+        limiter = new RateLimiter(1_000_000_000, 1_000_000, 2 * keys);
+        clients = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            clients[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+            // Ключи регистрируются заранее, замеряется проверка уже известного клиента
+            limiter.tryAcquire(clients[i], System.nanoTime());
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String client = clients[ThreadLocalRandom.current().nextInt(clients.length)];
+        return limiter.tryAcquire(client, System.nanoTime());
+    }
+}
@@ -0,0 +1,31 @@
+package com.infosec.secureapi.benchmark;
+
+import java.util.Random;
+
+/**
+ * Генератор детерминированных строк с заданной долей HTML-спецсимволов.
+ */
+final class TextGenerator {
+    private static final String PLAIN = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ 0123456789";
+    private static final String MIXED = PLAIN + "абвгдежзиклмнопрст .,!?";
+    private static final String SPECIAL = "<>&\"'/";
+
+    private TextGenerator() {
+    }
+
+    static String generate(Random random, int length, String charMix) {
+        double specialShare = switch (charMix) {
+            case "plain" -> 0.0;
+            case "mixed" -> 0.05;
+            case "hostile" -> 0.6;
+            default -> throw new IllegalArgumentException("Unknown char mix: " + charMix);
+        };
+        String alphabet = "plain".equals(charMix) ? PLAIN : MIXED;
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            String source = random.nextDouble() < specialShare ? SPECIAL : alphabet;
+            builder.append(source.charAt(random.nextInt(source.length())));
+        }
+        return builder.toString();
+    }
+}
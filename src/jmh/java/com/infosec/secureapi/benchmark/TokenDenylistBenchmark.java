@@ -0,0 +1,77 @@
+package com.infosec.secureapi.benchmark;
+
+import com.infosec.secureapi.security.TokenDenylist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки отзыва токена на один запрос.
+ * revoked - число отозванных токенов, разложенных по 24 часовым корзинам;
+ * notRevoked - обычный запрос (ответ дает фильтр Блума), revoked - запрос с отозванным токеном.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenDenylistBenchmark {
+    private static final int TOKENS = 10_000;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    @Param({"0", "10000", "100000"})
+    public int revoked;
+
+    private TokenDenylist denylist;
+    private String[] activeIds;
+    private long[] activeExpirations;
+    private String[] revokedIds;
+    private long[] revokedExpirations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Без файла: замеряется только проверка в памяти
+        denylist = new TokenDenylist(HOUR_MILLIS, Math.max(1, revoked / 24 * 2), Math.max(1, revoked), "");
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        revokedIds = new String[Math.max(1, revoked)];
+        revokedExpirations = new long[revokedIds.length];
+        for (int i = 0; i < revoked; i++) {
+            revokedIds[i] = UUID.randomUUID().toString();
+            revokedExpirations[i] = now + HOUR_MILLIS + random.nextLong(23 * HOUR_MILLIS);
+            denylist.revoke(revokedIds[i], revokedExpirations[i]);
+        }
+        activeIds = new String[TOKENS];
+        activeExpirations = new long[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            activeIds[i] = UUID.randomUUID().toString();
+            activeExpirations[i] = now + HOUR_MILLIS + random.nextLong(23 * HOUR_MILLIS);
+        }
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        return denylist.isRevoked(activeIds[i], activeExpirations[i]);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        int i = ThreadLocalRandom.current().nextInt(Math.max(1, revoked));
+        return denylist.isRevoked(revokedIds[i], revokedExpirations[i]);
+    }
+}
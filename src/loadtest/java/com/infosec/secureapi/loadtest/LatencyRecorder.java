@@ -0,0 +1,44 @@
+package com.infosec.secureapi.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Накопитель задержек одного потока для одного эндпоинта. Не потокобезопасен:
+ * у каждого клиента свой экземпляр, объединение выполняется после окончания теста.
+ */
+final class LatencyRecorder {
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long latencyNanos, boolean success) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    void mergeInto(LatencyRecorder target) {
+        for (int i = 0; i < count; i++) {
+            target.record(latenciesNanos[i], true);
+        }
+        target.errors += errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
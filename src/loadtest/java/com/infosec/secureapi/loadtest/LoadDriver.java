@@ -0,0 +1,239 @@
+package com.infosec.secureapi.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Генератор нагрузки: несколько параллельных клиентов выполняют смесь
+ * POST /auth/login, GET /api/data, POST /api/data, GET /api/data/search и POST /api/data/batch
+ * и замеряют задержки каждого запроса.
+ */
+final class LoadDriver {
+    enum Endpoint {
+        LOGIN("POST /auth/login"),
+        READ("GET /api/data"),
+        WRITE("POST /api/data"),
+        SEARCH("GET /api/data/search"),
+        BATCH("POST /api/data/batch");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final int INITIAL_LOGIN_ATTEMPTS = 20;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+
+    LoadDriver(URI baseUri, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    Report run() throws Exception {
+        // Токены получаются заранее и последовательно: одновременный вход сотен клиентов
+        // переполнил бы очередь BCrypt еще до начала прогрева
+        int distinctUsers = Math.min(settings.clients(), settings.users());
+        String[] tokens = new String[distinctUsers];
+        for (int user = 0; user < distinctUsers; user++) {
+            tokens[user] = initialLogin(LoadTestSeeder.USERNAME_PREFIX + user);
+        }
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long measureEnd = warmupEnd + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.clients());
+        try {
+            List<Future<Map<Endpoint, LatencyRecorder>>> futures = new ArrayList<>();
+            for (int client = 0; client < settings.clients(); client++) {
+                int user = client % distinctUsers;
+                String username = LoadTestSeeder.USERNAME_PREFIX + user;
+                String token = tokens[user];
+                futures.add(executor.submit(() -> runClient(username, token, warmupEnd, measureEnd)));
+            }
+
+            Map<Endpoint, LatencyRecorder> merged = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                merged.put(endpoint, new LatencyRecorder());
+            }
+            for (Future<Map<Endpoint, LatencyRecorder>> future : futures) {
+                future.get().forEach((endpoint, recorder) -> recorder.mergeInto(merged.get(endpoint)));
+            }
+            return new Report(merged, settings.durationSeconds(), settings.batchSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Endpoint, LatencyRecorder> runClient(String username, String initialToken,
+                                                     long warmupEnd, long measureEnd)
+            throws IOException, InterruptedException {
+        Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        String token = initialToken;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < measureEnd) {
+            Endpoint endpoint = settings.pick(random.nextInt(settings.mixTotal()));
+            long startedAt = System.nanoTime();
+            boolean success;
+            switch (endpoint) {
+                case LOGIN -> {
+                    LoginOutcome outcome = login(username);
+                    success = outcome.success;
+                    if (outcome.token != null) {
+                        token = outcome.token;
+                    }
+                }
+                case READ -> success = send(HttpRequest.newBuilder(baseUri.resolve("/api/data"))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build()) / 100 == 2;
+                case SEARCH -> success = send(HttpRequest.newBuilder(baseUri.resolve("/api/data/search?q="
+                                + LoadTestSeeder.TOPICS[random.nextInt(LoadTestSeeder.TOPICS.length)]
+                                + (random.nextBoolean() ? "+seed" : "") + "&limit=20"))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build()) / 100 == 2;
+                case BATCH -> success = send(HttpRequest.newBuilder(baseUri.resolve("/api/data/batch"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(batchBody()))
+                        .build()) / 100 == 2;
+                default -> success = send(HttpRequest.newBuilder(baseUri.resolve("/api/data"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(itemJson()))
+                        .build()) / 100 == 2;
+            }
+            if (now >= warmupEnd) {
+                recorders.get(endpoint).record(System.nanoTime() - startedAt, success);
+            }
+        }
+        return recorders;
+    }
+
+    private static String itemJson() {
+        return "{\"title\":\"Load item\",\"content\":\"" + LoadTestSeeder.randomContent() + "\"}";
+    }
+
+    private String batchBody() {
+        StringBuilder body = new StringBuilder(settings.batchSize() * 300);
+        body.append('[');
+        for (int i = 0; i < settings.batchSize(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(itemJson());
+        }
+        return body.append(']').toString();
+    }
+
+    /**
+     * Первый вход клиента повторяется, пока не будет получен токен: при одновременном старте
+     * всех клиентов пул хэширования паролей может отвечать 503.
+     */
+    private String initialLogin(String username) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            LoginOutcome outcome = login(username);
+            if (outcome.token != null) {
+                return outcome.token;
+            }
+            if (attempt >= INITIAL_LOGIN_ATTEMPTS) {
+                throw new IllegalStateException("Could not log in as " + username);
+            }
+            Thread.sleep(200L * (attempt + 1));
+        }
+    }
+
+    private LoginOutcome login(String username) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + LoadTestSeeder.PASSWORD + "\"}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        String token = response.statusCode() / 100 == 2 && matcher.find() ? matcher.group(1) : null;
+        return new LoginOutcome(token != null, token);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private record LoginOutcome(boolean success, String token) {
+    }
+
+    static final class Report {
+        private final Map<Endpoint, LatencyRecorder> recorders;
+        private final long durationSeconds;
+        private final int batchSize;
+
+        Report(Map<Endpoint, LatencyRecorder> recorders, long durationSeconds, int batchSize) {
+            this.recorders = recorders;
+            this.durationSeconds = durationSeconds;
+            this.batchSize = batchSize;
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-20s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "items/s");
+            for (Endpoint endpoint : Endpoint.values()) {
+                LatencyRecorder recorder = recorders.get(endpoint);
+                long[] sorted = recorder.sortedLatencies();
+                // Созданные элементы: успешные запросы записи, умноженные на число элементов в запросе
+                int items = switch (endpoint) {
+                    case WRITE -> 1;
+                    case BATCH -> batchSize;
+                    default -> 0;
+                };
+                out.printf("%-20s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f %10.1f%n",
+                        endpoint.label,
+                        recorder.count(),
+                        recorder.errors(),
+                        recorder.count() / (double) durationSeconds,
+                        percentileMillis(sorted, 0.50),
+                        percentileMillis(sorted, 0.99),
+                        percentileMillis(sorted, 0.999),
+                        sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0,
+                        (recorder.count() - recorder.errors()) * (double) items / durationSeconds);
+            }
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
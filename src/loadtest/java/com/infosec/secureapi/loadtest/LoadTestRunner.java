@@ -0,0 +1,38 @@
+package com.infosec.secureapi.loadtest;
+
+import com.infosec.secureapi.SecureApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+
+/**
+ * Точка входа нагрузочного теста: поднимает приложение с профилем loadtest на встроенной H2,
+ * заполняет БД (LoadTestSeeder), прогоняет нагрузку и печатает задержки и пропускную способность по эндпоинтам.
+ */
+public final class LoadTestRunner {
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication app = new SpringApplication(SecureApiApplication.class);
+        app.setAdditionalProfiles("loadtest");
+
+        try (ConfigurableApplicationContext context = app.run(args)) {
+            Environment environment = context.getEnvironment();
+            int port = environment.getRequiredProperty("local.server.port", Integer.class);
+            LoadTestSettings settings = LoadTestSettings.from(environment);
+
+            String threads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                    ? "virtual" : "platform";
+            System.out.printf("Load test: %s threads, %d clients, %d s warm-up, %d s measurement, mix login/read/write/search/batch = %d/%d/%d/%d/%d%n",
+                    threads, settings.clients(), settings.warmupSeconds(), settings.durationSeconds(),
+                    settings.loginWeight(), settings.readWeight(), settings.writeWeight(), settings.searchWeight(),
+                    settings.batchWeight());
+            LoadDriver.Report report = new LoadDriver(URI.create("http://localhost:" + port), settings).run();
+            report.print(System.out);
+        }
+        System.exit(0);
+    }
+}
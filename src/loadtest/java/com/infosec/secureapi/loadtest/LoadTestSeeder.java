@@ -0,0 +1,153 @@
+package com.infosec.secureapi.loadtest;
+
+import com.infosec.secureapi.entity.DataItem;
+import com.infosec.secureapi.entity.User;
+import com.infosec.secureapi.repository.DataItemRepository;
+import com.infosec.secureapi.repository.UserRepository;
+import com.infosec.secureapi.service.DataService;
+import com.infosec.secureapi.service.SearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Заполняет встроенную БД пользователями и элементами перед нагрузочным тестом.
+ * У всех пользователей один пароль, поэтому BCrypt-хэш вычисляется один раз.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestSeeder implements ApplicationRunner {
+    static final String USERNAME_PREFIX = "loaduser";
+    static final String PASSWORD = "loadtest-password";
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestSeeder.class);
+    private static final int CHUNK_SIZE = 1000;
+    // Слова заголовков для поисковых запросов нагрузочного теста
+    static final String[] TOPICS = {"security", "network", "database", "crypto", "backend",
+            "frontend", "testing", "release", "incident", "metrics"};
+
+    private final UserRepository userRepository;
+    private final DataItemRepository dataItemRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final SearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int users;
+    private final int items;
+
+    @Autowired
+    public LoadTestSeeder(UserRepository userRepository,
+                          DataItemRepository dataItemRepository,
+                          PasswordEncoder passwordEncoder,
+                          SearchIndex searchIndex,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${loadtest.users}") int users,
+                          @Value("${loadtest.items}") int items) {
+        this.userRepository = userRepository;
+        this.dataItemRepository = dataItemRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.searchIndex = searchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.users = users;
+        this.items = items;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startedAt = System.nanoTime();
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        List<User> authors = transactionTemplate.execute(status -> {
+            List<User> batch = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                User user = new User();
+                user.setUsername(USERNAME_PREFIX + i);
+                user.setUsernameHtml(DataService.escapeHtml(user.getUsername()));
+                user.setPassword(passwordHash);
+                // Элементы ниже раздаются авторам по кругу, счетчик заполняется сразу
+                user.setItemCount(items / users + (i < items % users ? 1 : 0));
+                batch.add(user);
+            }
+            return userRepository.saveAll(batch);
+        });
+
+        for (int offset = 0; offset < items; offset += CHUNK_SIZE) {
+            int chunkEnd = Math.min(items, offset + CHUNK_SIZE);
+            int chunkStart = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<DataItem> batch = new ArrayList<>(chunkEnd - chunkStart);
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    DataItem item = new DataItem();
+                    item.setTitle("Seed item " + i + " " + TOPICS[i % TOPICS.length]);
+                    item.setContent(randomContent());
+                    item.setTitleHtml(DataService.escapeHtml(item.getTitle()));
+                    item.setContentHtml(DataService.escapeHtml(item.getContent()));
+                    item.setUser(authors.get(i % authors.size()));
+                    batch.add(item);
+                }
+                dataItemRepository.saveAll(batch);
+            });
+        }
+        log.info("Seeded {} users and {} data items in {} ms",
+                users, items, (System.nanoTime() - startedAt) / 1_000_000);
+        // Элементы записаны напрямую через репозиторий, минуя события DataService
+        if (searchIndex.isEnabled()) {
+            searchIndex.loadFromDatabase();
+        }
+    }
+
+    /**
+     * Текст из слов словаря с распределением частот по закону Ципфа, как в естественном языке:
+     * немногие слова встречаются очень часто, большинство - редко.
+     */
+    static String randomContent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int length = 50 + random.nextInt(400);
+        StringBuilder builder = new StringBuilder(length + 16);
+        while (builder.length() < length) {
+            if (!builder.isEmpty()) {
+                builder.append(' ');
+            }
+            builder.append(VOCABULARY[zipfRank(random.nextDouble())]);
+        }
+        return builder.toString();
+    }
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final String[] VOCABULARY = new String[VOCABULARY_SIZE];
+    private static final double[] ZIPF_CUMULATIVE = new double[VOCABULARY_SIZE];
+
+    static {
+        java.util.Random words = new java.util.Random(42);
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            int wordLength = 3 + words.nextInt(8);
+            char[] word = new char[wordLength];
+            for (int i = 0; i < wordLength; i++) {
+                word[i] = (char) ('a' + words.nextInt(26));
+            }
+            VOCABULARY[rank] = new String(word);
+            total += 1.0 / (rank + 1);
+            ZIPF_CUMULATIVE[rank] = total;
+        }
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            ZIPF_CUMULATIVE[rank] /= total;
+        }
+    }
+
+    private static int zipfRank(double roll) {
+        int index = java.util.Arrays.binarySearch(ZIPF_CUMULATIVE, roll);
+        return Math.min(index >= 0 ? index : -index - 1, VOCABULARY_SIZE - 1);
+    }
+}
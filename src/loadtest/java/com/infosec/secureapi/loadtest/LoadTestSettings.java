@@ -0,0 +1,46 @@
+package com.infosec.secureapi.loadtest;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Параметры нагрузочного теста из профиля loadtest (переопределяются аргументами --loadtest.*).
+ */
+record LoadTestSettings(int users, int clients, long warmupSeconds, long durationSeconds,
+                        int loginWeight, int readWeight, int writeWeight, int searchWeight,
+                        int batchWeight, int batchSize) {
+
+    static LoadTestSettings from(Environment environment) {
+        return new LoadTestSettings(
+                environment.getRequiredProperty("loadtest.users", Integer.class),
+                environment.getRequiredProperty("loadtest.clients", Integer.class),
+                environment.getRequiredProperty("loadtest.warmup-seconds", Long.class),
+                environment.getRequiredProperty("loadtest.duration-seconds", Long.class),
+                environment.getRequiredProperty("loadtest.mix.login", Integer.class),
+                environment.getRequiredProperty("loadtest.mix.read", Integer.class),
+                environment.getRequiredProperty("loadtest.mix.write", Integer.class),
+                environment.getProperty("loadtest.mix.search", Integer.class, 0),
+                environment.getProperty("loadtest.mix.batch", Integer.class, 0),
+                environment.getProperty("loadtest.batch-size", Integer.class, 100)
+        );
+    }
+
+    int mixTotal() {
+        return loginWeight + readWeight + writeWeight + searchWeight + batchWeight;
+    }
+
+    LoadDriver.Endpoint pick(int roll) {
+        if (roll < loginWeight) {
+            return LoadDriver.Endpoint.LOGIN;
+        }
+        if (roll < loginWeight + readWeight) {
+            return LoadDriver.Endpoint.READ;
+        }
+        if (roll < loginWeight + readWeight + writeWeight) {
+            return LoadDriver.Endpoint.WRITE;
+        }
+        if (roll < loginWeight + readWeight + writeWeight + searchWeight) {
+            return LoadDriver.Endpoint.SEARCH;
+        }
+        return LoadDriver.Endpoint.BATCH;
+    }
+}
@@ -0,0 +1,38 @@
+package com.infosec.secureapi.audit;
+
+/**
+ * Тип записи журнала аудита. code хранится в записи одним байтом, 0 означает пустой слот сегмента,
+ * поэтому коды существующих типов менять нельзя.
+ */
+public enum AuditEventType {
+    LOGIN(1),
+    LOGIN_FAILED(2),
+    REGISTRATION(3),
+    LOGOUT(4),
+    ITEM_CREATED(5);
+
+    private static final AuditEventType[] BY_CODE = new AuditEventType[6];
+
+    static {
+        for (AuditEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    AuditEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return тип по коду или null для пустого слота и неизвестного кода
+     */
+    public static AuditEventType fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
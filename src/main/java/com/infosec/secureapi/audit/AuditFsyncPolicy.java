@@ -0,0 +1,19 @@
+package com.infosec.secureapi.audit;
+
+import java.util.Locale;
+
+/**
+ * Когда писатель журнала аудита сбрасывает записанные страницы сегмента на диск (MappedByteBuffer.force).
+ */
+public enum AuditFsyncPolicy {
+    /** Только при ротации сегмента и остановке, остальное - на усмотрение ОС */
+    NONE,
+    /** Не реже раза в audit.fsync.interval-ms */
+    INTERVAL,
+    /** После каждой порции записей, выбранной из буфера */
+    BATCH;
+
+    public static AuditFsyncPolicy parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
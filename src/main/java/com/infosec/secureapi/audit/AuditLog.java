@@ -0,0 +1,252 @@
+package com.infosec.secureapi.audit;
+
+import com.infosec.secureapi.dto.DataItemResponse;
+import com.infosec.secureapi.service.DataItemsCreatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал аудита: входы, регистрации, выходы и создание элементов.
+ *
+ * Поток запроса только кладет поля события в кольцевой буфер (AuditRingBuffer) - без блокировок,
+ * ввода-вывода и аллокаций. Единственный поток-писатель забирает события порциями и пишет записи
+ * фиксированного размера в отображенные в память сегменты (AuditSegmentWriter), сбрасывая их на диск
+ * по политике audit.fsync.policy. Сегменты читает AuditLogReader.
+ *
+ * Если писатель не успевает и буфер полон, событие не записывается: запрос не ждет журнал.
+ * Такие события считаются в audit.events{result=dropped}, писатель раз в секунду пишет их число в лог.
+ * События созданных элементов записываются после коммита транзакции.
+ *
+ * Пустой буфер писатель не опрашивает: он паркуется, и его будит первое опубликованное событие
+ * (или срок очередного fsync). Поток запроса платит за это одним чтением volatile-флага.
+ *
+ * По умолчанию журнал выключен. Включает его эксплуатация (audit.enabled=true) вместе с каталогом audit.dir:
+ * без каталога приложение не стартует, а не пишет журнал молча в рабочий каталог процесса.
+ */
+@Component
+public class AuditLog implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final int DRAIN_LIMIT = 1024;
+    private static final long DROP_REPORT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final AuditFsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long idleParkNanos;
+    private final AuditRingBuffer buffer;
+    private final AuditRingBuffer.Handler appender = this::append;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private volatile Thread writer;
+    // Писатель запаркован на пустом буфере и ждет unpark от производителя
+    private final AtomicBoolean writerParked = new AtomicBoolean();
+    private volatile AuditSegmentWriter segments;
+    private boolean failing;
+
+    @Autowired
+    public AuditLog(@Value("${audit.enabled:false}") boolean enabled,
+                    @Value("${audit.dir:}") String directory,
+                    @Value("${audit.segment-size-bytes:67108864}") long segmentBytes,
+                    @Value("${audit.buffer-size:65536}") int bufferSize,
+                    @Value("${audit.fsync.policy:interval}") String fsyncPolicy,
+                    @Value("${audit.fsync.interval-ms:1000}") long fsyncIntervalMillis) {
+        this.enabled = enabled;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsyncPolicy = AuditFsyncPolicy.parse(fsyncPolicy);
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        // Простаивающий писатель просыпается сам только ради fsync по интервалу и отчета о потерях
+        long idleMillis = this.fsyncPolicy == AuditFsyncPolicy.INTERVAL
+                ? Math.min(fsyncIntervalMillis, TimeUnit.NANOSECONDS.toMillis(DROP_REPORT_NANOS))
+                : TimeUnit.NANOSECONDS.toMillis(DROP_REPORT_NANOS);
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleMillis));
+        this.buffer = new AuditRingBuffer(enabled ? bufferSize : 2);
+    }
+
+    /**
+     * Ставит событие в очередь на запись. Не блокируется.
+     *
+     * @param userId 0, если пользователь неизвестен
+     * @param itemId 0 для событий без элемента
+     * @return false, если журнал выключен или событие отброшено из-за переполнения буфера
+     */
+    public boolean record(AuditEventType type, long userId, String username, long itemId, String clientAddress) {
+        if (!enabled) {
+            return false;
+        }
+        if (!accepting || !buffer.publish(System.currentTimeMillis(), type, userId, itemId, username, clientAddress)) {
+            dropped.increment();
+            return false;
+        }
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    @TransactionalEventListener
+    public void onDataItemsCreated(DataItemsCreatedEvent event) {
+        List<DataItemResponse> items = event.getItems();
+        List<Long> authorIds = event.getAuthorIds();
+        for (int i = 0; i < items.size(); i++) {
+            record(AuditEventType.ITEM_CREATED, authorIds.get(i), null, items.get(i).getId(), null);
+        }
+    }
+
+    private void runWriter() {
+        long reportedDrops = 0;
+        long dropReportedAt = System.nanoTime();
+        // После stop() писатель дописывает все, что успело попасть в буфер
+        while (running || buffer.size() > 0) {
+            int drained = buffer.drain(appender, DRAIN_LIMIT);
+            long now = System.nanoTime();
+            segments.sync(now);
+            if (now - dropReportedAt >= DROP_REPORT_NANOS) {
+                long drops = dropped.sum();
+                if (drops > reportedDrops) {
+                    log.warn("Audit buffer was full, {} events dropped", drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+                dropReportedAt = now;
+            }
+            if (drained == 0) {
+                writerParked.set(true);
+                // Проверка после установки флага: производитель, опубликовавший событие до нее,
+                // мог не увидеть флаг и не разбудить писателя
+                if (running && buffer.size() == 0) {
+                    LockSupport.parkNanos(this, idleParkNanos);
+                }
+                writerParked.set(false);
+            }
+        }
+    }
+
+    private void append(long bufferSequence, long timestampMillis, AuditEventType type, long userId, long itemId,
+                        String username, String clientAddress) {
+        try {
+            segments.append(timestampMillis, type, userId, itemId, username, clientAddress);
+            written.increment();
+            failing = false;
+        } catch (IOException e) {
+            failed.increment();
+            if (!failing) {
+                log.error("Could not write audit log to {}: {}", directory.toAbsolutePath(), e.getMessage());
+                failing = true;
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (directory == null) {
+            throw new IllegalStateException("audit.dir (AUDIT_DIR) must be set when audit.enabled=true");
+        }
+        try {
+            segments = new AuditSegmentWriter(directory, segmentBytes, fsyncPolicy, fsyncIntervalMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit log in " + directory.toAbsolutePath(), e);
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        if (current.isAlive()) {
+            log.error("Audit writer did not stop in time, {} events may be lost", buffer.size());
+            return;
+        }
+        try {
+            segments.close();
+        } catch (IOException e) {
+            log.error("Could not close audit log: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Останавливается последним: после веб-сервера и группового коммита, события которых еще пишутся.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    public long getFsyncCount() {
+        AuditSegmentWriter current = segments;
+        return current == null ? 0 : current.getForceCount();
+    }
+
+    public long getFsyncNanos() {
+        AuditSegmentWriter current = segments;
+        return current == null ? 0 : current.getForceNanos();
+    }
+
+    public long getSegmentCount() {
+        AuditSegmentWriter current = segments;
+        return current == null ? 0 : current.getSegmentCount();
+    }
+}
@@ -0,0 +1,141 @@
+package com.infosec.secureapi.audit;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Чтение журнала аудита: записи сегментов в NDJSON (одна запись - один объект JSON в строке) в stdout.
+ *
+ * Аргументы: --dir каталог (по умолчанию из AUDIT_DIR), --type типы через запятую, --since ISO-8601 момент,
+ * --from-sequence N. Поврежденные записи (не сходится CRC) пропускаются с сообщением в stderr,
+ * код выхода тогда 2. Пустые слоты (хвост незакрытого сегмента) пропускаются молча.
+ *
+ * Запуск: mvn -Paudit-read compile exec:exec -Daudit.args="--dir /var/lib/secureapi/audit --type LOGIN_FAILED"
+ */
+public final class AuditLogReader {
+    private final Set<AuditEventType> types;
+    private final long sinceMillis;
+    private final long fromSequence;
+    private long corrupt;
+
+    private AuditLogReader(Set<AuditEventType> types, long sinceMillis, long fromSequence) {
+        this.types = types;
+        this.sinceMillis = sinceMillis;
+        this.fromSequence = fromSequence;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        Set<AuditEventType> types = EnumSet.allOf(AuditEventType.class);
+        if (options.containsKey("type")) {
+            types = EnumSet.noneOf(AuditEventType.class);
+            for (String type : options.get("type").split(",")) {
+                types.add(AuditEventType.valueOf(type.trim()));
+            }
+        }
+        long since = options.containsKey("since") ? Instant.parse(options.get("since")).toEpochMilli() : Long.MIN_VALUE;
+        long fromSequence = Long.parseLong(options.getOrDefault("from-sequence", "0"));
+        AuditLogReader reader = new AuditLogReader(types, since, fromSequence);
+
+        String dir = options.getOrDefault("dir", System.getenv("AUDIT_DIR"));
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalArgumentException("Audit directory is not set: pass --dir or set AUDIT_DIR");
+        }
+        Path directory = Path.of(dir);
+        JsonFactory factory = JsonFactory.builder().rootValueSeparator("\n").build();
+        OutputStream out = new BufferedOutputStream(System.out, 1 << 16);
+        long records = 0;
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            for (Path segment : AuditSegmentFormat.listSegments(directory)) {
+                records += reader.readSegment(segment, gen);
+            }
+            if (records > 0) {
+                gen.writeRaw('\n');
+            }
+        }
+        System.err.printf("%d records, %d corrupt%n", records, reader.corrupt);
+        if (reader.corrupt > 0) {
+            System.exit(2);
+        }
+    }
+
+    private long readSegment(Path file, JsonGenerator gen) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                AuditSegmentFormat.readFirstSequence(segment);
+            } catch (IllegalStateException e) {
+                System.err.printf("%s: %s, skipped%n", file, e.getMessage());
+                corrupt++;
+                return 0;
+            }
+            long records = 0;
+            for (int offset = AuditSegmentFormat.HEADER_SIZE;
+                 offset + AuditSegmentFormat.RECORD_SIZE <= segment.capacity();
+                 offset += AuditSegmentFormat.RECORD_SIZE) {
+                AuditRecord record;
+                try {
+                    record = AuditSegmentFormat.decode(segment, offset);
+                } catch (IllegalStateException e) {
+                    System.err.printf("%s: %s%n", file, e.getMessage());
+                    corrupt++;
+                    continue;
+                }
+                if (record == null || !types.contains(record.type())
+                        || record.timestampMillis() < sinceMillis || record.sequence() < fromSequence) {
+                    continue;
+                }
+                write(record, gen);
+                records++;
+            }
+            return records;
+        }
+    }
+
+    private static void write(AuditRecord record, JsonGenerator gen) {
+        gen.writeStartObject();
+        gen.writeNumberProperty("sequence", record.sequence());
+        gen.writeStringProperty("time", Instant.ofEpochMilli(record.timestampMillis()).toString());
+        gen.writeStringProperty("type", record.type().name());
+        if (record.userId() != 0) {
+            gen.writeNumberProperty("userId", record.userId());
+        }
+        if (record.username() != null) {
+            gen.writeStringProperty("username", record.username());
+            if (record.usernameTruncated()) {
+                gen.writeBooleanProperty("usernameTruncated", true);
+            }
+        }
+        if (record.itemId() != 0) {
+            gen.writeNumberProperty("itemId", record.itemId());
+        }
+        if (record.clientAddress() != null) {
+            gen.writeStringProperty("clientAddress", record.clientAddress());
+        }
+        gen.writeEndObject();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
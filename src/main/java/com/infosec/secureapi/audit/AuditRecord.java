@@ -0,0 +1,13 @@
+package com.infosec.secureapi.audit;
+
+/**
+ * Запись журнала аудита, прочитанная из сегмента.
+ *
+ * @param userId 0, если пользователь неизвестен (неудачный вход)
+ * @param itemId 0 для событий без элемента
+ * @param username null для событий без имени пользователя
+ * @param clientAddress null, если адрес клиента не записан
+ */
+public record AuditRecord(long sequence, long timestampMillis, AuditEventType type, long userId, long itemId,
+                          String username, String clientAddress, boolean usernameTruncated) {
+}
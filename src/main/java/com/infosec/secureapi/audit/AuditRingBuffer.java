@@ -0,0 +1,116 @@
+package com.infosec.secureapi.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Кольцевой буфер событий аудита: много производителей (потоки запросов), один потребитель (писатель).
+ *
+ * Без блокировок и без аллокаций на событие: поля событий лежат в заранее выделенных массивах по слотам.
+ * Производитель занимает номер CAS-ом по head (если буфер полон, событие не принимается и head
+ * не двигается), заполняет поля слота и публикует его записью номера + 1 в published (release).
+ * Потребитель идет по номерам от tail, читает слот, как только видит его номер в published (acquire),
+ * и продвигает tail, освобождая слоты для производителей.
+ *
+ * Слоты публикуются не обязательно по порядку: потребитель останавливается на первом незавершенном
+ * и продолжит с него в следующий раз, поэтому записи выходят в порядке номеров.
+ */
+final class AuditRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final long[] timestamps;
+    private final byte[] types;
+    private final long[] userIds;
+    private final long[] itemIds;
+    private final String[] usernames;
+    private final String[] clientAddresses;
+
+    // Следующий свободный номер (производители) и следующий непрочитанный (потребитель)
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer size must be a power of two");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.userIds = new long[capacity];
+        this.itemIds = new long[capacity];
+        this.usernames = new String[capacity];
+        this.clientAddresses = new String[capacity];
+    }
+
+    /**
+     * @return false, если буфер полон
+     */
+    boolean publish(long timestampMillis, AuditEventType type, long userId, long itemId,
+                    String username, String clientAddress) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail.get() >= capacity) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        timestamps[slot] = timestampMillis;
+        types[slot] = type.getCode();
+        userIds[slot] = userId;
+        itemIds[slot] = itemId;
+        usernames[slot] = username;
+        clientAddresses[slot] = clientAddress;
+        // Записи полей выше видны потребителю, прочитавшему этот номер
+        published.setRelease(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Передает обработчику опубликованные события по порядку, не больше limit.
+     * Вызывается только потоком-потребителем.
+     *
+     * @return число переданных событий
+     */
+    int drain(Handler handler, int limit) {
+        long sequence = tail.get();
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) sequence & mask;
+            if (published.getAcquire(slot) != sequence + 1) {
+                break;
+            }
+            handler.onEvent(sequence, timestamps[slot], AuditEventType.fromCode(types[slot]),
+                    userIds[slot], itemIds[slot], usernames[slot], clientAddresses[slot]);
+            // Строки больше не нужны, слот не должен удерживать их до следующего круга
+            usernames[slot] = null;
+            clientAddresses[slot] = null;
+            sequence++;
+            drained++;
+        }
+        if (drained > 0) {
+            tail.setRelease(sequence);
+        }
+        return drained;
+    }
+
+    /**
+     * @return число опубликованных или занятых, но еще не прочитанных событий
+     */
+    int size() {
+        return (int) Math.max(0, head.get() - tail.get());
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void onEvent(long sequence, long timestampMillis, AuditEventType type, long userId, long itemId,
+                     String username, String clientAddress);
+    }
+}
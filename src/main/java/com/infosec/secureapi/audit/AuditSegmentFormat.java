@@ -0,0 +1,230 @@
+package com.infosec.secureapi.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат сегментов журнала аудита.
+ *
+ * Сегмент - файл audit-{первый номер записи, 20 цифр}.seg фиксированного размера, заполненный нулями
+ * при создании. Первые RECORD_SIZE байт - заголовок, дальше записи по RECORD_SIZE байт подряд.
+ * Слот с нулевым типом пуст: писатель не дошел до него или страница не попала на диск до сбоя.
+ *
+ * Заголовок: magic (int), версия (short), размер записи (short), номер первой записи (long),
+ * время создания сегмента (long, мс).
+ *
+ * Запись (big-endian):
+ * <pre>
+ *   0  long   номер записи (сквозной между сегментами)
+ *   8  long   время события, мс с эпохи
+ *  16  long   id пользователя, 0 - неизвестен
+ *  24  long   id элемента, 0 - нет
+ *  32  byte   код AuditEventType
+ *  33  byte   флаги (бит 0 - имя пользователя обрезано)
+ *  34  byte   длина адреса клиента
+ *  35  byte   длина имени пользователя (беззнаковая)
+ *  36  48     адрес клиента, ASCII
+ *  84  168    имя пользователя, UTF-8
+ * 252  int    CRC32C байт 0..251
+ * </pre>
+ */
+public final class AuditSegmentFormat {
+    public static final int RECORD_SIZE = 256;
+    public static final int HEADER_SIZE = RECORD_SIZE;
+
+    static final int MAGIC = 0x41554454;
+    static final short VERSION = 1;
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".seg";
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int USER_ID = 16;
+    private static final int ITEM_ID = 24;
+    private static final int TYPE = 32;
+    private static final int FLAGS = 33;
+    private static final int ADDRESS_LENGTH = 34;
+    private static final int USERNAME_LENGTH = 35;
+    private static final int ADDRESS = 36;
+    private static final int ADDRESS_MAX_BYTES = 48;
+    private static final int USERNAME = ADDRESS + ADDRESS_MAX_BYTES;
+    private static final int USERNAME_MAX_BYTES = 168;
+    private static final int CRC = USERNAME + USERNAME_MAX_BYTES;
+    private static final int FLAG_USERNAME_TRUNCATED = 1;
+
+    private AuditSegmentFormat() {
+    }
+
+    public static String fileName(long firstSequence) {
+        return String.format("%s%020d%s", FILE_PREFIX, firstSequence, FILE_SUFFIX);
+    }
+
+    /**
+     * Сегменты каталога в порядке номеров записей (имена одинаковой длины, поэтому сортировка по имени).
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static void writeHeader(ByteBuffer segment, long firstSequence, long createdAtMillis) {
+        segment.putInt(0, MAGIC);
+        segment.putShort(4, VERSION);
+        segment.putShort(6, (short) RECORD_SIZE);
+        segment.putLong(8, firstSequence);
+        segment.putLong(16, createdAtMillis);
+    }
+
+    /**
+     * Проверяет заголовок сегмента и возвращает номер его первой записи.
+     *
+     * @throws IllegalStateException если файл не является сегментом этой версии формата
+     */
+    public static long readFirstSequence(ByteBuffer segment) {
+        if (segment.capacity() < HEADER_SIZE || segment.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not an audit segment");
+        }
+        if (segment.getShort(4) != VERSION || segment.getShort(6) != RECORD_SIZE) {
+            throw new IllegalStateException("Unsupported audit segment version " + segment.getShort(4));
+        }
+        return segment.getLong(8);
+    }
+
+    /**
+     * @return true, если в слоте по смещению offset что-то записано
+     */
+    static boolean isWritten(ByteBuffer segment, int offset) {
+        return segment.get(offset + TYPE) != 0;
+    }
+
+    /**
+     * Читает запись по смещению offset.
+     *
+     * @return null для пустого слота
+     * @throws IllegalStateException если запись повреждена (не сходится CRC или неизвестный тип)
+     */
+    public static AuditRecord decode(ByteBuffer segment, int offset) {
+        byte code = segment.get(offset + TYPE);
+        if (code == 0) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(offset, CRC));
+        AuditEventType type = AuditEventType.fromCode(code);
+        if ((int) crc.getValue() != segment.getInt(offset + CRC) || type == null) {
+            throw new IllegalStateException("Corrupt audit record at offset " + offset);
+        }
+        int addressLength = Math.min(segment.get(offset + ADDRESS_LENGTH) & 0xff, ADDRESS_MAX_BYTES);
+        int usernameLength = Math.min(segment.get(offset + USERNAME_LENGTH) & 0xff, USERNAME_MAX_BYTES);
+        return new AuditRecord(
+                segment.getLong(offset + SEQUENCE),
+                segment.getLong(offset + TIMESTAMP),
+                type,
+                segment.getLong(offset + USER_ID),
+                segment.getLong(offset + ITEM_ID),
+                usernameLength == 0 ? null : string(segment, offset + USERNAME, usernameLength),
+                addressLength == 0 ? null : string(segment, offset + ADDRESS, addressLength),
+                (segment.get(offset + FLAGS) & FLAG_USERNAME_TRUNCATED) != 0);
+    }
+
+    private static String string(ByteBuffer segment, int offset, int length) {
+        byte[] bytes = new byte[length];
+        segment.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Кодирует записи в переиспользуемый буфер. Не потокобезопасен, принадлежит писателю.
+     */
+    static final class Encoder {
+        private final byte[] record = new byte[RECORD_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(record);
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * @return буфер с записью, действителен до следующего вызова
+         */
+        byte[] encode(long sequence, long timestampMillis, AuditEventType type, long userId, long itemId,
+                      String usernameValue, String clientAddress) {
+            Arrays.fill(record, (byte) 0);
+            buffer.putLong(SEQUENCE, sequence);
+            buffer.putLong(TIMESTAMP, timestampMillis);
+            buffer.putLong(USER_ID, userId);
+            buffer.putLong(ITEM_ID, itemId);
+            buffer.put(TYPE, type.getCode());
+            if (clientAddress != null) {
+                int length = Math.min(clientAddress.length(), ADDRESS_MAX_BYTES);
+                for (int i = 0; i < length; i++) {
+                    char c = clientAddress.charAt(i);
+                    record[ADDRESS + i] = (byte) (c < 0x80 ? c : '?');
+                }
+                buffer.put(ADDRESS_LENGTH, (byte) length);
+            }
+            if (usernameValue != null) {
+                putUsername(usernameValue);
+            }
+            crc.reset();
+            crc.update(record, 0, CRC);
+            buffer.putInt(CRC, (int) crc.getValue());
+            return record;
+        }
+
+        /**
+         * UTF-8 без промежуточных буферов; имя, не поместившееся в поле, обрезается по границе символа.
+         */
+        private void putUsername(String value) {
+            int length = 0;
+            int i = 0;
+            while (i < value.length()) {
+                int codePoint = value.codePointAt(i);
+                if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                    // Непарный суррогат не кодируется в UTF-8
+                    codePoint = '?';
+                }
+                int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+                if (length + size > USERNAME_MAX_BYTES) {
+                    buffer.put(FLAGS, (byte) FLAG_USERNAME_TRUNCATED);
+                    break;
+                }
+                int at = USERNAME + length;
+                switch (size) {
+                    case 1 -> record[at] = (byte) codePoint;
+                    case 2 -> {
+                        record[at] = (byte) (0xc0 | codePoint >> 6);
+                        record[at + 1] = (byte) (0x80 | codePoint & 0x3f);
+                    }
+                    case 3 -> {
+                        record[at] = (byte) (0xe0 | codePoint >> 12);
+                        record[at + 1] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                        record[at + 2] = (byte) (0x80 | codePoint & 0x3f);
+                    }
+                    default -> {
+                        record[at] = (byte) (0xf0 | codePoint >> 18);
+                        record[at + 1] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                        record[at + 2] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                        record[at + 3] = (byte) (0x80 | codePoint & 0x3f);
+                    }
+                }
+                length += size;
+                i += Character.charCount(codePoint);
+            }
+            buffer.put(USERNAME_LENGTH, (byte) length);
+        }
+    }
+}
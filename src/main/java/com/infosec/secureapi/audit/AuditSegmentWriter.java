@@ -0,0 +1,204 @@
+package com.infosec.secureapi.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись событий в сегменты журнала аудита через MappedByteBuffer (формат - AuditSegmentFormat).
+ * Используется только потоком-писателем AuditLog.
+ *
+ * Новый сегмент создается при старте и когда текущий заполнен; файл отображается в память целиком,
+ * запись - копирование 256 байт в отображение без системных вызовов. На диск страницы попадают
+ * по политике fsync (force только диапазона, записанного с прошлого сброса), при ротации и при закрытии.
+ * При закрытии сегмент обрезается до записанной длины.
+ */
+final class AuditSegmentWriter implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AuditSegmentWriter.class);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final AuditFsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final AuditSegmentFormat.Encoder encoder = new AuditSegmentFormat.Encoder();
+
+    private long nextSequence;
+    private Path segmentFile;
+    private MappedByteBuffer segment;
+    private int position;
+    private int forcedPosition;
+    private long lastForceNanos = System.nanoTime();
+    private long retryAtNanos = System.nanoTime();
+
+    // Пишутся только писателем, читаются метриками
+    private volatile long forceCount;
+    private volatile long forceNanos;
+    private volatile long segmentCount;
+
+    AuditSegmentWriter(Path directory, long segmentBytes, AuditFsyncPolicy fsyncPolicy, long fsyncIntervalMillis)
+            throws IOException {
+        long records = (segmentBytes - AuditSegmentFormat.HEADER_SIZE) / AuditSegmentFormat.RECORD_SIZE;
+        if (records < 1 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Audit segment size must hold at least one record and be below 2 GB");
+        }
+        this.directory = directory;
+        this.segmentBytes = (int) (AuditSegmentFormat.HEADER_SIZE + records * AuditSegmentFormat.RECORD_SIZE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        Files.createDirectories(directory);
+        this.nextSequence = recoverNextSequence();
+    }
+
+    /**
+     * Номер следующей записи: продолжение последнего сегмента. Пустой последний сегмент
+     * (сбой сразу после создания) удаляется, чтобы новый сегмент занял его имя.
+     */
+    private long recoverNextSequence() throws IOException {
+        List<Path> segments = AuditSegmentFormat.listSegments(directory);
+        if (segments.isEmpty()) {
+            return 1;
+        }
+        Path last = segments.get(segments.size() - 1);
+        String name = last.getFileName().toString();
+        long firstSequence = Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+        int written = 0;
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.READ)) {
+            if (channel.size() > AuditSegmentFormat.HEADER_SIZE) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int slots = (int) ((channel.size() - AuditSegmentFormat.HEADER_SIZE) / AuditSegmentFormat.RECORD_SIZE);
+                // С конца: после сбоя в середине могут остаться пустые слоты, номера за ними уже выданы
+                for (int slot = slots - 1; slot >= 0; slot--) {
+                    if (AuditSegmentFormat.isWritten(mapped, offset(slot))) {
+                        written = slot + 1;
+                        break;
+                    }
+                }
+            }
+        }
+        if (written == 0) {
+            Files.delete(last);
+        }
+        log.info("Audit log continues at record {} in {}", firstSequence + written, directory.toAbsolutePath());
+        return firstSequence + written;
+    }
+
+    void append(long timestampMillis, AuditEventType type, long userId, long itemId,
+                String username, String clientAddress) throws IOException {
+        if (segment == null || position + AuditSegmentFormat.RECORD_SIZE > segmentBytes) {
+            rotate();
+        }
+        byte[] record = encoder.encode(nextSequence, timestampMillis, type, userId, itemId, username, clientAddress);
+        try {
+            segment.put(position, record);
+        } catch (InternalError e) {
+            // Ошибка записи страницы отображения (например, на диске нет места) приходит как InternalError
+            segment = null;
+            retryAtNanos = System.nanoTime() + RETRY_NANOS;
+            if (position == AuditSegmentFormat.HEADER_SIZE) {
+                // В сегменте нет записей, следующий займет то же имя
+                Files.deleteIfExists(segmentFile);
+            }
+            throw new IOException("Could not write audit segment " + segmentFile, e);
+        }
+        position += AuditSegmentFormat.RECORD_SIZE;
+        nextSequence++;
+    }
+
+    /**
+     * Сброс по политике fsync после порции записей или в простое.
+     */
+    void sync(long nowNanos) {
+        switch (fsyncPolicy) {
+            case BATCH -> force();
+            case INTERVAL -> {
+                if (nowNanos - lastForceNanos >= fsyncIntervalNanos) {
+                    force();
+                }
+            }
+            case NONE -> {
+            }
+        }
+    }
+
+    private void force() {
+        lastForceNanos = System.nanoTime();
+        if (segment == null || position == forcedPosition) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        segment.force(forcedPosition, position - forcedPosition);
+        forcedPosition = position;
+        forceNanos += System.nanoTime() - startedAt;
+        forceCount++;
+    }
+
+    private void rotate() throws IOException {
+        if (segment != null) {
+            force();
+            segment = null;
+        }
+        if (System.nanoTime() - retryAtNanos < 0) {
+            throw new IOException("Audit segment is unavailable after a write error");
+        }
+        Path file = directory.resolve(AuditSegmentFormat.fileName(nextSequence));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Отображение расширяет файл до полного размера, не записанная часть читается нулями
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            AuditSegmentFormat.writeHeader(mapped, nextSequence, System.currentTimeMillis());
+            mapped.force(0, AuditSegmentFormat.HEADER_SIZE);
+            segment = mapped;
+            segmentFile = file;
+        } catch (IOException e) {
+            retryAtNanos = System.nanoTime() + RETRY_NANOS;
+            throw e;
+        }
+        position = AuditSegmentFormat.HEADER_SIZE;
+        forcedPosition = position;
+        segmentCount++;
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск и обрезает его до записанной длины.
+     */
+    @Override
+    public void close() throws IOException {
+        if (segment == null) {
+            return;
+        }
+        force();
+        segment = null;
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+        } catch (IOException e) {
+            // Не на всех ОС можно обрезать файл, пока он отображен; читатель пропускает пустые слоты
+            log.debug("Could not truncate audit segment {}: {}", segmentFile, e.getMessage());
+        }
+    }
+
+    private static int offset(int slot) {
+        return AuditSegmentFormat.HEADER_SIZE + slot * AuditSegmentFormat.RECORD_SIZE;
+    }
+
+    long getForceCount() {
+        return forceCount;
+    }
+
+    long getForceNanos() {
+        return forceNanos;
+    }
+
+    long getSegmentCount() {
+        return segmentCount;
+    }
+}
@@ -14,6 +14,10 @@ public class EnvConfig implements ApplicationContextInitializer<ConfigurableAppl
     @Override
     public void initialize(ConfigurableApplicationContext applicationContext) {
         ConfigurableEnvironment environment = applicationContext.getEnvironment();
+        // Профиль faststart отключает чтение .env: настройки приходят из переменных окружения
+        if (!environment.getProperty("app.dotenv.enabled", Boolean.class, true)) {
+            return;
+        }
         
         try {
             Dotenv dotenv = Dotenv.configure()
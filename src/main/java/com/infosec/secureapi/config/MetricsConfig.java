@@ -0,0 +1,223 @@
+package com.infosec.secureapi.config;
+
+import com.infosec.secureapi.audit.AuditLog;
+import com.infosec.secureapi.security.BoundedPasswordEncoder;
+import com.infosec.secureapi.security.CredentialVersionIndex;
+import com.infosec.secureapi.security.RateLimitFilter;
+import com.infosec.secureapi.security.RateLimiter;
+import com.infosec.secureapi.security.TokenDenylist;
+import com.infosec.secureapi.security.VerifiedTokenCache;
+import com.infosec.secureapi.service.FeedCache;
+import com.infosec.secureapi.service.FeedStream;
+import com.infosec.secureapi.service.ItemJsonCache;
+import com.infosec.secureapi.service.JwtService;
+import com.infosec.secureapi.service.SearchIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Привязка внутренних счетчиков (кэши, пул хэширования паролей) к Micrometer.
+ * Метрики пула соединений Hikari и HTTP-запросов регистрирует Spring Boot.
+ * Теги ограничены фиксированными значениями, чтобы число временных рядов не росло.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordEncoder passwordEncoder) {
+        return registry -> {
+            if (!(passwordEncoder instanceof BoundedPasswordEncoder encoder)) {
+                return;
+            }
+            Gauge.builder("security.password.hashing.queue.depth", encoder, BoundedPasswordEncoder::getQueueDepth)
+                    .description("Password hashing tasks waiting for a worker")
+                    .register(registry);
+            Gauge.builder("security.password.hashing.active", encoder, BoundedPasswordEncoder::getActiveCount)
+                    .register(registry);
+            Gauge.builder("security.password.hashing.pool.size", encoder, BoundedPasswordEncoder::getPoolSize)
+                    .register(registry);
+            FunctionCounter.builder("security.password.hashing.rejected", encoder,
+                            BoundedPasswordEncoder::getRejectedCount)
+                    .description("Hashing requests rejected with 503 because the queue was full or timed out")
+                    .register(registry);
+            FunctionTimer.builder("security.password.hashing.wait", encoder,
+                            BoundedPasswordEncoder::getCompletedCount,
+                            BoundedPasswordEncoder::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent in the hashing queue")
+                    .register(registry);
+            FunctionTimer.builder("security.password.hashing.duration", encoder,
+                            BoundedPasswordEncoder::getCompletedCount,
+                            BoundedPasswordEncoder::getTotalHashNanos, TimeUnit.NANOSECONDS)
+                    .description("BCrypt encode/matches time")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder jwtCacheMetrics(JwtService jwtService, CredentialVersionIndex credentialVersionIndex) {
+        return registry -> {
+            VerifiedTokenCache cache = jwtService.getVerifiedTokenCache();
+            FunctionCounter.builder("auth.jwt.cache.requests", cache, VerifiedTokenCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("auth.jwt.cache.requests", cache, VerifiedTokenCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("auth.jwt.cache.evictions", cache, VerifiedTokenCache::getEvictionCount)
+                    .description("Verified tokens evicted because the cache was full")
+                    .register(registry);
+            Gauge.builder("auth.jwt.cache.size", cache, VerifiedTokenCache::size)
+                    .register(registry);
+            Gauge.builder("auth.credential.index.size", credentialVersionIndex, CredentialVersionIndex::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenDenylistMetrics(TokenDenylist tokenDenylist) {
+        return registry -> {
+            FunctionCounter.builder("auth.jwt.denylist.revoked", tokenDenylist, TokenDenylist::getRevokedCount)
+                    .description("Tokens revoked through POST /auth/logout")
+                    .register(registry);
+            FunctionCounter.builder("auth.jwt.denylist.rejected", tokenDenylist, TokenDenylist::getRejectedCount)
+                    .description("Revocations rejected because the denylist reached jwt.denylist.max-entries")
+                    .register(registry);
+            FunctionCounter.builder("auth.jwt.denylist.bloom.positives", tokenDenylist, TokenDenylist::getBloomPositiveCount)
+                    .description("Denylist lookups that passed the Bloom filter")
+                    .register(registry);
+            Gauge.builder("auth.jwt.denylist.entries", tokenDenylist, TokenDenylist::getEntryCount)
+                    .register(registry);
+            Gauge.builder("auth.jwt.denylist.buckets", tokenDenylist, TokenDenylist::getBucketCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            if (!auditLog.isEnabled()) {
+                return;
+            }
+            bindAuditEvents(registry, auditLog, "written", AuditLog::getWrittenCount);
+            bindAuditEvents(registry, auditLog, "dropped", AuditLog::getDroppedCount);
+            bindAuditEvents(registry, auditLog, "failed", AuditLog::getFailedCount);
+            Gauge.builder("audit.buffer.depth", auditLog, AuditLog::getBufferDepth)
+                    .description("Audit events waiting for the writer")
+                    .register(registry);
+            FunctionCounter.builder("audit.segments", auditLog, AuditLog::getSegmentCount)
+                    .description("Audit segment files created")
+                    .register(registry);
+            FunctionTimer.builder("audit.fsync", auditLog,
+                            AuditLog::getFsyncCount, AuditLog::getFsyncNanos, TimeUnit.NANOSECONDS)
+                    .description("Forcing written audit records to disk")
+                    .register(registry);
+        };
+    }
+
+    private static void bindAuditEvents(MeterRegistry registry, AuditLog auditLog, String result,
+                                        ToDoubleFunction<AuditLog> count) {
+        FunctionCounter.builder("audit.events", auditLog, count)
+                .description("Audit events by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimitFilter rateLimitFilter) {
+        return registry -> {
+            if (!rateLimitFilter.isEnabled()) {
+                return;
+            }
+            bindRateLimiter(registry, "client", rateLimitFilter.getClientLimiter());
+            bindRateLimiter(registry, "user", rateLimitFilter.getUserLimiter());
+        };
+    }
+
+    private static void bindRateLimiter(MeterRegistry registry, String scope, RateLimiter limiter) {
+        FunctionCounter.builder("http.rate.limit.requests", limiter, RateLimiter::getAllowedCount)
+                .description("Rate limiter decisions; rejected requests get 429")
+                .tags("scope", scope, "result", "allowed")
+                .register(registry);
+        FunctionCounter.builder("http.rate.limit.requests", limiter, RateLimiter::getRejectedCount)
+                .description("Rate limiter decisions; rejected requests get 429")
+                .tags("scope", scope, "result", "rejected")
+                .register(registry);
+        Gauge.builder("http.rate.limit.keys", limiter, RateLimiter::size)
+                .description("Tracked rate-limit keys (client IPs or usernames)")
+                .tag("scope", scope)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder feedStreamMetrics(FeedStream feedStream) {
+        return registry -> {
+            Gauge.builder("data.stream.subscribers", feedStream, FeedStream::getSubscriberCount)
+                    .description("Open GET /api/data/stream connections")
+                    .register(registry);
+            FunctionCounter.builder("data.stream.events", feedStream, FeedStream::getPublishedCount)
+                    .description("Items serialized and fanned out to stream subscribers")
+                    .register(registry);
+            FunctionCounter.builder("data.stream.dropped", feedStream, FeedStream::getDroppedCount)
+                    .description("Subscribers disconnected because their buffer was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder searchIndexMetrics(SearchIndex searchIndex) {
+        return registry -> {
+            Gauge.builder("search.index.documents", searchIndex, SearchIndex::getDocumentCount)
+                    .register(registry);
+            Gauge.builder("search.index.terms", searchIndex, SearchIndex::getTermCount)
+                    .register(registry);
+            Gauge.builder("search.index.memory", searchIndex, SearchIndex::getMemoryBytes)
+                    .description("Estimated heap used by postings and document arrays")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder feedCacheMetrics(FeedCache feedCache) {
+        return registry -> {
+            FunctionCounter.builder("data.feed.cache.requests", feedCache, FeedCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("data.feed.cache.requests", feedCache, FeedCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("data.feed.cache.requests", feedCache, FeedCache::getNotModifiedCount)
+                    .tag("result", "not_modified")
+                    .register(registry);
+            Gauge.builder("data.feed.cache.hit.ratio", feedCache, FeedCache::getHitRatio)
+                    .register(registry);
+            Gauge.builder("data.feed.cache.bytes", feedCache, FeedCache::getTotalBytes)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder itemJsonCacheMetrics(ItemJsonCache itemJsonCache) {
+        return registry -> {
+            FunctionCounter.builder("data.feed.item.cache.requests", itemJsonCache, ItemJsonCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("data.feed.item.cache.requests", itemJsonCache, ItemJsonCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("data.feed.item.cache.bytes", itemJsonCache, ItemJsonCache::getTotalBytes)
+                    .register(registry);
+            Gauge.builder("data.feed.item.cache.size", itemJsonCache, ItemJsonCache::size)
+                    .register(registry);
+        };
+    }
+}
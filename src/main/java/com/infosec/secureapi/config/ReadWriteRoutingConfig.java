@@ -0,0 +1,89 @@
+package com.infosec.secureapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Маршрутизация чтений на реплики (app.datasource.routing.enabled=true).
+ * Основная БД настраивается как обычно (spring.datasource.*, spring.datasource.hikari.*),
+ * реплики перечисляются в app.datasource.routing.replica-urls и получают те же настройки пула.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 ReadYourWritesTracker readYourWrites) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+
+        String[] urls = environment.getProperty("app.datasource.routing.replica-urls", String[].class, new String[0]);
+        String username = environment.getProperty("app.datasource.routing.replica-username",
+                properties.determineUsername());
+        String password = environment.getProperty("app.datasource.routing.replica-password",
+                properties.determinePassword());
+        long connectionTimeout = environment.getProperty(
+                "app.datasource.routing.replica-connection-timeout-ms", Long.class, 1000L);
+        long healthCheckInterval = environment.getProperty(
+                "app.datasource.routing.health-check-interval-ms", Long.class, 5000L);
+
+        List<HikariDataSource> replicas = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            // Недоступная реплика не должна надолго задерживать запрос: после таймаута чтение уйдет на основную БД
+            replica.setConnectionTimeout(connectionTimeout);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+
+        ReplicaRoutingDataSource replicaRouting =
+                new ReplicaRoutingDataSource(primary, replicas, readYourWrites, healthCheckInterval);
+        return new ReadWriteRoutingDataSource(primary, replicaRouting);
+    }
+
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(DataSource dataSource) {
+        // В режиме виртуальных потоков бин обернут ограничителем конкурентности
+        ReadWriteRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReadWriteRoutingDataSource.class);
+        return registry -> {
+            if (routing == null) {
+                return;
+            }
+            ReplicaRoutingDataSource replicas = routing.getReplicas();
+            FunctionCounter.builder("jdbc.routing.reads", replicas, ReplicaRoutingDataSource::getReplicaReadCount)
+                    .description("Read-only transactions by target database")
+                    .tag("target", "replica")
+                    .register(registry);
+            FunctionCounter.builder("jdbc.routing.reads", replicas, ReplicaRoutingDataSource::getPrimaryReadCount)
+                    .tag("target", "primary")
+                    .register(registry);
+            Gauge.builder("jdbc.routing.replicas.healthy", replicas, ReplicaRoutingDataSource::getHealthyReplicaCount)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.infosec.secureapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Основной DataSource в режиме маршрутизации. Физическое соединение берется лениво,
+ * при первом SQL-запросе: к этому моменту транзакция уже пометила соединение read-only,
+ * и такие транзакции получают соединение с реплики, а остальные - с основной БД.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final HikariDataSource primary;
+    private final ReplicaRoutingDataSource replicas;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaRoutingDataSource replicas) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    public ReplicaRoutingDataSource getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.close();
+        primary.close();
+    }
+}
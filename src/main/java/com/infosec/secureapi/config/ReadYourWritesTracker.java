@@ -0,0 +1,119 @@
+package com.infosec.secureapi.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Запоминает время последней записи пользователя, чтобы в течение короткого окна
+ * его чтения шли на основную БД, а не на реплику, которая могла еще не получить изменения.
+ * Без маршрутизации чтений (app.datasource.routing.enabled=false) ничего не хранит.
+ *
+ * Кроме того, задает область onPrimary для чтений, результат которых разделяется между
+ * пользователями (кэш страниц ленты, догрузка потока SSE): отставшая реплика закрепила бы
+ * устаревшие данные для всех, поэтому такие чтения всегда идут на основную БД.
+ */
+@Component
+public class ReadYourWritesTracker {
+    private static final int SWEEP_THRESHOLD = 10_000;
+    private static final ThreadLocal<Boolean> PRIMARY_SCOPE = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final boolean routingEnabled;
+    private final boolean enabled;
+    private final long windowNanos;
+
+    @Autowired
+    public ReadYourWritesTracker(@Value("${app.datasource.routing.enabled:false}") boolean routingEnabled,
+                                 @Value("${app.datasource.routing.sticky-window-ms:2000}") long windowMillis) {
+        this.routingEnabled = routingEnabled;
+        this.enabled = routingEnabled && windowMillis > 0;
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    /**
+     * Отмечает запись пользователя. Внутри транзакции окно отсчитывается от ее коммита:
+     * до коммита основная БД сама еще не отдает изменения, а откат не должен закреплять чтения.
+     */
+    public void recordWrite(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(username);
+            }
+        });
+    }
+
+    private void record(String username) {
+        long now = System.nanoTime();
+        if (lastWrites.size() >= SWEEP_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+        lastWrites.put(username, now);
+    }
+
+    /**
+     * @return true, если пользователь писал в последние sticky-window-ms и должен читать с основной БД
+     */
+    public boolean isSticky(String username) {
+        if (!enabled || username == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(username);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(username, writtenAt);
+        return false;
+    }
+
+    /**
+     * Выполняет action так, что все его read-only транзакции читают с основной БД.
+     * Транзакция должна начинаться внутри action: соединение выбирается при первом запросе.
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        if (!routingEnabled) {
+            return action.get();
+        }
+        Boolean previous = PRIMARY_SCOPE.get();
+        PRIMARY_SCOPE.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_SCOPE.remove();
+            } else {
+                PRIMARY_SCOPE.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return true, если read-only транзакции могут читать с реплик
+     */
+    public boolean isRoutingEnabled() {
+        return routingEnabled;
+    }
+
+    /**
+     * @return true внутри onPrimary
+     */
+    public boolean isPrimaryRequired() {
+        return PRIMARY_SCOPE.get() != null;
+    }
+}
@@ -0,0 +1,150 @@
+package com.infosec.secureapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Источник соединений для read-only транзакций: реплики по кругу (round-robin),
+ * недоступные реплики пропускаются до следующей успешной проверки.
+ * Если живых реплик нет, пользователь недавно писал (read-your-writes) или чтение выполняется
+ * в области ReadYourWritesTracker.onPrimary, соединение берется из основной БД.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas;
+    // 1 - реплика доступна, 0 - исключена из ротации
+    private final AtomicIntegerArray healthy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ReadYourWritesTracker readYourWrites;
+    private final ScheduledExecutorService healthChecker;
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<HikariDataSource> replicas,
+                                    ReadYourWritesTracker readYourWrites,
+                                    long healthCheckIntervalMillis) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, 1);
+        }
+        this.readYourWrites = readYourWrites;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readYourWrites.isPrimaryRequired() && !readYourWrites.isSticky(currentUsername())) {
+            int count = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+            for (int i = 0; i < count; i++) {
+                int index = (start + i) % count;
+                if (healthy.get(index) == 0) {
+                    continue;
+                }
+                try {
+                    Connection connection = replicas.get(index).getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markUnhealthy(index, e);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Не вызывается: LazyConnectionDataSourceProxy передает сюда только вызовы своего
+     * getConnection(username, password), а Spring (JPA, JdbcTemplate, транзакции) всегда берет
+     * соединение без учетных данных. Пулы Hikari реплик и основной БД такие вызовы тоже не поддерживают.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the configured pool credentials");
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean valid;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                valid = connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+            } catch (SQLException | RuntimeException e) {
+                valid = false;
+            }
+            if (valid) {
+                if (healthy.getAndSet(i, 1) == 0) {
+                    log.info("Replica {} is back in rotation", replicas.get(i).getPoolName());
+                }
+            } else {
+                markUnhealthy(i, null);
+            }
+        }
+    }
+
+    private void markUnhealthy(int index, Exception cause) {
+        if (healthy.getAndSet(index, 0) == 1) {
+            log.warn("Replica {} removed from rotation: {}", replicas.get(index).getPoolName(),
+                    cause != null ? cause.getMessage() : "health check failed");
+        }
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getHealthyReplicaCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,68 @@
+package com.infosec.secureapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Режим виртуальных потоков (spring.threads.virtual.enabled=true): Tomcat и асинхронные
+ * ответы выполняются на виртуальных потоках, а доступ к БД ограничивается семафором
+ * по размеру пула Hikari (app.datasource.max-concurrency=0 - по размеру пула).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        int configured = environment.getProperty("app.datasource.max-concurrency", Integer.class, 0);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int maxConcurrency = configured;
+                long acquireTimeoutMillis = 30_000;
+                // Пул может быть обернут (например, маршрутизацией чтений) - лимит берется от основного пула
+                HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+                if (hikari != null) {
+                    if (maxConcurrency <= 0) {
+                        maxConcurrency = hikari.getMaximumPoolSize();
+                    }
+                    acquireTimeoutMillis = hikari.getConnectionTimeout();
+                }
+                if (maxConcurrency <= 0) {
+                    return bean;
+                }
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMillis);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceConcurrencyMetrics(ObjectProvider<DataSource> dataSources) {
+        return (MeterRegistry registry) -> dataSources.orderedStream()
+                .filter(ConcurrencyLimitedDataSource.class::isInstance)
+                .map(ConcurrencyLimitedDataSource.class::cast)
+                .findFirst()
+                .ifPresent(limited -> {
+                    Gauge.builder("jdbc.concurrency.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                            .description("Threads waiting for a database connection permit")
+                            .register(registry);
+                    Gauge.builder("jdbc.concurrency.available", limited,
+                                    ConcurrencyLimitedDataSource::getAvailablePermits)
+                            .register(registry);
+                });
+    }
+}
@@ -1,76 +1,94 @@
 package com.infosec.secureapi.controller;
 
+import com.infosec.secureapi.audit.AuditEventType;
+import com.infosec.secureapi.audit.AuditLog;
 import com.infosec.secureapi.dto.LoginRequest;
 import com.infosec.secureapi.dto.LoginResponse;
-import com.infosec.secureapi.entity.User;
-import com.infosec.secureapi.service.DataService;
+import com.infosec.secureapi.dto.UserCredentials;
+import com.infosec.secureapi.security.AuthenticatedUser;
+import com.infosec.secureapi.security.TokenDenylist;
+import com.infosec.secureapi.security.VerifiedToken;
 import com.infosec.secureapi.service.JwtService;
+import com.infosec.secureapi.service.LoginResult;
 import com.infosec.secureapi.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
-    private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtService jwtService;
+    private final TokenDenylist tokenDenylist;
+    private final AuditLog auditLog;
 
     @Autowired
-    public AuthController(AuthenticationManager authenticationManager,
-                         UserService userService,
-                         JwtService jwtService) {
-        this.authenticationManager = authenticationManager;
+    public AuthController(UserService userService, JwtService jwtService, TokenDenylist tokenDenylist,
+                          AuditLog auditLog) {
         this.userService = userService;
         this.jwtService = jwtService;
+        this.tokenDenylist = tokenDenylist;
+        this.auditLog = auditLog;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
-        boolean isNewUser = false;
-        User user;
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        LoginResult result;
         try {
-            user = userService.findByUsername(loginRequest.getUsername());
-        } catch (UsernameNotFoundException ex) {
-            user = userService.createUser(
-                    loginRequest.getUsername(),
-                    loginRequest.getPassword()
-            );
-            isNewUser = true;
+            // Пользователь загружается один раз, пароль проверяется по загруженному хэшу
+            result = userService.loginOrRegister(loginRequest.getUsername(), loginRequest.getPassword());
+        } catch (BadCredentialsException e) {
+            auditLog.record(AuditEventType.LOGIN_FAILED, 0, loginRequest.getUsername(), 0, request.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid username or password");
         }
 
-        if (!isNewUser) {
-            try {
-                authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(
-                                loginRequest.getUsername(),
-                                loginRequest.getPassword()
-                        )
-                );
-            } catch (BadCredentialsException e) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid username or password");
-            }
-        }
-
-        UserDetails userDetails = userService.loadUserByUsername(user.getUsername());
-        String token = jwtService.generateToken(userDetails);
+        UserCredentials user = result.getUser();
+        auditLog.record(result.isCreated() ? AuditEventType.REGISTRATION : AuditEventType.LOGIN,
+                user.getId(), user.getUsername(), 0, request.getRemoteAddr());
+        String token = jwtService.generateToken(AuthenticatedUser.fromCredentials(user));
 
         LoginResponse response = new LoginResponse();
         response.setToken(token);
-        response.setUsername(DataService.escapeHtml(user.getUsername()));
+        response.setUsername(user.getUsernameHtml());
 
-        HttpStatus status = isNewUser ? HttpStatus.CREATED : HttpStatus.OK;
+        HttpStatus status = result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK;
         return ResponseEntity.status(status).body(response);
     }
-}
 
+    /**
+     * Отзыв токена из заголовка Authorization до истечения его срока действия.
+     * Повторный выход с тем же токеном тоже отвечает 204.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    HttpServletRequest request) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing token");
+        }
+        String token = authHeader.substring(7);
+        VerifiedToken verified = jwtService.verifyToken(token);
+        if (verified == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+        }
+        if (verified.getTokenId() == null) {
+            // Токены без jti выпущены до появления отзыва и истекут сами
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Token cannot be revoked");
+        }
+        if (!tokenDenylist.revoke(verified.getTokenId(), verified.getExpiresAtMillis())) {
+            // Список отозванных токенов заполнен: токен остается действующим, клиенту нужно знать об этом
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Token revocation is unavailable");
+        }
+        jwtService.getVerifiedTokenCache().evict(token);
+        auditLog.record(AuditEventType.LOGOUT, verified.getUserId() == null ? 0 : verified.getUserId(),
+                verified.getUsername(), 0, request.getRemoteAddr());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,48 +1,257 @@
 package com.infosec.secureapi.controller;
 
+import com.infosec.secureapi.dto.DataItemBatchResponse;
 import com.infosec.secureapi.dto.DataItemRequest;
 import com.infosec.secureapi.dto.DataItemResponse;
-import com.infosec.secureapi.entity.User;
+import com.infosec.secureapi.security.AuthenticatedUser;
+import com.infosec.secureapi.service.CachedFeed;
 import com.infosec.secureapi.service.DataService;
-import com.infosec.secureapi.service.UserService;
+import com.infosec.secureapi.service.FeedCache;
+import com.infosec.secureapi.service.FeedStream;
+import com.infosec.secureapi.service.GroupCommitWriter;
+import com.infosec.secureapi.service.SearchIndex;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/data")
 @CrossOrigin(origins = "*")
 public class DataController {
+    private static final int MAX_QUERY_LENGTH = 200;
+    // Совпадает с длиной колонки users.username: более длинное имя заведомо не существует
+    private static final int MAX_USERNAME_LENGTH = 50;
+    // Ранжирование держит в памяти offset + limit лучших результатов, поэтому глубина ограничена
+    private static final int MAX_SEARCH_OFFSET = 10_000;
+
     private final DataService dataService;
-    private final UserService userService;
+    private final FeedCache feedCache;
+    private final SearchIndex searchIndex;
+    private final FeedStream feedStream;
+    private final GroupCommitWriter groupCommitWriter;
+    private final int maxBatchSize;
 
     @Autowired
-    public DataController(DataService dataService, UserService userService) {
+    public DataController(DataService dataService,
+                          FeedCache feedCache,
+                          SearchIndex searchIndex,
+                          FeedStream feedStream,
+                          GroupCommitWriter groupCommitWriter,
+                          @Value("${data.batch.max-size:500}") int maxBatchSize) {
         this.dataService = dataService;
-        this.userService = userService;
+        this.feedCache = feedCache;
+        this.searchIndex = searchIndex;
+        this.feedStream = feedStream;
+        this.groupCommitWriter = groupCommitWriter;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @GetMapping
-    public ResponseEntity<List<DataItemResponse>> getAllDataItems() {
-        List<DataItemResponse> items = dataService.getAllDataItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<byte[]> getAllDataItems(WebRequest webRequest) {
+        return cachedFeed(webRequest, "all", dataService::getAllDataItems);
+    }
+
+    /**
+     * Полная выгрузка ленты в NDJSON для клиентов, синхронизирующих весь список.
+     * Ответ пишется потоково по мере чтения строк из БД.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDataItems() {
+        StreamingResponseBody body = dataService::exportFeed;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Новые элементы в реальном времени (Server-Sent Events) вместо периодического опроса ленты.
+     * Событие item содержит элемент в том же виде, что и лента, id события - id элемента.
+     * При переподключении с Last-Event-ID сначала приходят пропущенные элементы (часть уже полученных
+     * может прийти повторно - клиент отсеивает их по id); если их слишком много, приходит событие reset
+     * и ленту нужно загрузить заново.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamDataItems(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        Long resumeFrom = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid Last-Event-ID");
+            }
+        }
+        SseEmitter emitter = feedStream.subscribe(resumeFrom);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many stream subscribers");
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                // Отключает буферизацию ответа в nginx, иначе события доходят пачками
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<?> getFeedPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                         @RequestParam(name = "limit", required = false) Integer limit,
+                                         WebRequest webRequest) {
+        try {
+            String key = "feed|" + limit + "|" + (cursor == null ? "" : cursor);
+            return cachedFeed(webRequest, key, () -> dataService.getFeedPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
+        }
+    }
+
+    /**
+     * Лента элементов одного автора с числом его элементов.
+     * Страницы кэшируются вместе с общей лентой и сбрасываются при создании любых элементов.
+     */
+    @GetMapping("/by/{username}")
+    public ResponseEntity<?> getAuthorFeedPage(@PathVariable(name = "username") String username,
+                                               @RequestParam(name = "cursor", required = false) String cursor,
+                                               @RequestParam(name = "limit", required = false) Integer limit,
+                                               WebRequest webRequest) {
+        if (username.length() > MAX_USERNAME_LENGTH) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        }
+        String key = "by|" + username + "|" + limit + "|" + (cursor == null ? "" : cursor);
+        return authorFeed(webRequest, key,
+                () -> dataService.getAuthorFeedPage(username, cursor, limit).orElseThrow());
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<?> getOwnFeedPage(@RequestParam(name = "cursor", required = false) String cursor,
+                                            @RequestParam(name = "limit", required = false) Integer limit,
+                                            Authentication authentication,
+                                            WebRequest webRequest) {
+        AuthenticatedUser author = (AuthenticatedUser) authentication.getPrincipal();
+        String key = "me|" + author.getId() + "|" + limit + "|" + (cursor == null ? "" : cursor);
+        return authorFeed(webRequest, key,
+                () -> dataService.getAuthorFeedPage(author.getId(), cursor, limit).orElseThrow());
+    }
+
+    private ResponseEntity<?> authorFeed(WebRequest webRequest, String key, Supplier<Object> loader) {
+        try {
+            return cachedFeed(webRequest, key, loader);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchDataItems(@RequestParam(name = "q") String query,
+                                             @RequestParam(name = "offset", defaultValue = "0") int offset,
+                                             @RequestParam(name = "limit", required = false) Integer limit) {
+        if (!searchIndex.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Search is disabled");
+        }
+        if (query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Query must contain 1 to " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Offset must be between 0 and " + MAX_SEARCH_OFFSET);
+        }
+        return ResponseEntity.ok(dataService.searchDataItems(query, offset, limit));
+    }
+
+    /**
+     * Ответ ленты через кэш: совпавший If-None-Match дает 304 без обращения к БД,
+     * иначе тело берется из кэша отрендеренных страниц текущей версии.
+     * Клиенту, принимающему gzip, отдается заранее сжатое тело из того же кэша.
+     * Ответ зависит от токена (/me - лента текущего пользователя), поэтому Vary: Authorization.
+     */
+    private ResponseEntity<byte[]> cachedFeed(WebRequest webRequest, String key, Supplier<Object> loader) {
+        boolean gzip = feedCache.isGzipEnabled() && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (webRequest.checkNotModified(feedCache.currentETag(key, gzip))) {
+            feedCache.recordNotModified();
+            return null;
+        }
+        CachedFeed feed = feedCache.getOrRender(key, loader, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(feed.getEtag())
+                // Клиент может хранить ответ, но обязан перепроверять его по ETag
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (feedCache.isGzipEnabled()) {
+            response.varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_ENCODING);
+        } else {
+            response.varyBy(HttpHeaders.AUTHORIZATION);
+        }
+        if (feed.isGzip()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(feed.getBody());
+    }
+
+    /**
+     * Есть ли gzip среди кодировок Accept-Encoding с ненулевым q.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
 
     @PostMapping
     public ResponseEntity<DataItemResponse> createDataItem(
             @Valid @RequestBody DataItemRequest request,
             Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userService.findByUsername(userDetails.getUsername());
-        
-        DataItemResponse response = dataService.createDataItem(request, user);
+        // id автора берется из principal, повторная загрузка пользователя не нужна
+        AuthenticatedUser author = (AuthenticatedUser) authentication.getPrincipal();
+
+        // В режиме group commit элемент вставляется вместе с параллельными запросами одной транзакцией
+        DataItemResponse response = groupCommitWriter.isEnabled()
+                ? groupCommitWriter.create(request, author.getId(), author.getUsername())
+                : dataService.createDataItem(request, author.getId(), author.getUsername());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
-}
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createDataItems(
+            @RequestBody List<DataItemRequest> requests,
+            Authentication authentication) {
+        if (requests.isEmpty() || requests.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Batch must contain between 1 and " + maxBatchSize + " items");
+        }
+        AuthenticatedUser author = (AuthenticatedUser) authentication.getPrincipal();
+
+        DataItemBatchResponse response = dataService.createDataItems(requests, author.getId(), author.getUsername());
+        HttpStatus status = response.getCreatedCount() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+}
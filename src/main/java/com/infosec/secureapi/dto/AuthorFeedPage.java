@@ -0,0 +1,18 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorFeedPage {
+    private String username;
+    private long itemCount;
+    private List<DataItemResponse> items;
+    // null, если это последняя страница
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Проекция автора для страницы профиля: id, экранированное имя и счетчик элементов,
+ * без загрузки сущности User (пароль, версия учетных данных и т.д.).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorSummary {
+    private Long id;
+    private String username;
+    private long itemCount;
+}
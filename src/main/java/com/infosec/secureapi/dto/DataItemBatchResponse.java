@@ -0,0 +1,16 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataItemBatchResponse {
+    private int createdCount;
+    private int rejectedCount;
+    private List<DataItemBatchResult> results;
+}
@@ -0,0 +1,19 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataItemBatchResult {
+    // Позиция элемента во входном списке
+    private int index;
+    private boolean created;
+    // null, если элемент не прошел валидацию
+    private DataItemResponse item;
+    private List<String> errors;
+}
@@ -0,0 +1,20 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Исходные (неэкранированные) тексты элемента для поискового индекса.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataItemText {
+    private Long id;
+    private String title;
+    private String content;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция элемента ленты для чтения: только нужные колонки, имя автора берется через join.
+ * Не является управляемой сущностью, поэтому Hibernate не хранит для нее снимки для dirty-checking.
+ * Строковые поля содержат уже HTML-экранированные значения, сохраненные при записи.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataItemView {
+    private Long id;
+    private String title;
+    private String content;
+    private String username;
+    private LocalDateTime createdAt;
+}
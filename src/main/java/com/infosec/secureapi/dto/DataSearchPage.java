@@ -0,0 +1,18 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataSearchPage {
+    private List<DataItemResponse> items;
+    // Общее число найденных элементов
+    private int total;
+    // null, если это последняя страница
+    private Integer nextOffset;
+}
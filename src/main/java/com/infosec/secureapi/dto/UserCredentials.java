@@ -0,0 +1,21 @@
+package com.infosec.secureapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Проекция пользователя для входа: только колонки покрывающего индекса ux_users_username_login,
+ * поэтому на PostgreSQL запрос выполняется как index-only scan. Новые колонки users
+ * (например, item_count) сюда не добавляются, иначе вход снова будет читать таблицу.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCredentials {
+    private Long id;
+    private String username;
+    private String usernameHtml;
+    private String password;
+    private int credentialVersion;
+}
@@ -15,8 +15,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "JPA entities require direct field access for proper ORM functionality")
 public class DataItem {
+    // Sequence с pooled-оптимизатором: id выдаются блоками без обращения к БД на каждую вставку,
+    // что позволяет Hibernate группировать INSERT в JDBC batch (с IDENTITY это невозможно)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "data_items_seq")
+    @SequenceGenerator(name = "data_items_seq", sequenceName = "data_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 500)
@@ -25,6 +28,14 @@ public class DataItem {
     @Column(length = 2000)
     private String content;
 
+    // HTML-экранированные копии title/content, вычисляются один раз при записи.
+    // Исходные значения остаются основными и используются для других контекстов вывода
+    @Column(length = 2500)
+    private String titleHtml;
+
+    @Column(length = 10000)
+    private String contentHtml;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -20,9 +20,22 @@ public class User {
     @Column(unique = true, nullable = false, length = 50)
     private String username;
 
+    // HTML-экранированное имя, вычисляется один раз при регистрации
+    @Column(length = 250)
+    private String usernameHtml;
+
     @Column(nullable = false)
     private String password; // Хранится в хэшированном виде
 
+    // Увеличивается при смене пароля, чтобы ранее выданные токены перестали приниматься
+    @Column(nullable = false)
+    private int credentialVersion;
+
+    // Число элементов автора. Меняется только атомарным UPDATE из UserRepository.incrementItemCount,
+    // поэтому исключено из UPDATE сущности, иначе сохранение пользователя затирало бы параллельные приращения
+    @Column(nullable = false, updatable = false)
+    private long itemCount;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -1,15 +1,98 @@
 package com.infosec.secureapi.repository;
 
+import com.infosec.secureapi.dto.DataItemText;
+import com.infosec.secureapi.dto.DataItemView;
 import com.infosec.secureapi.entity.DataItem;
-import com.infosec.secureapi.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DataItemRepository extends JpaRepository<DataItem, Long> {
-    List<DataItem> findByUser(User user);
     List<DataItem> findAllByOrderByCreatedAtDesc();
+
+    // Keyset-пагинация ленты: стоимость страницы не зависит от глубины прокрутки.
+    // Автор подтягивается join'ом в той же выборке, поэтому запрос на страницу ровно один
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "order by i.createdAt desc, i.id desc")
+    List<DataItemView> findFeedFirstPage(Limit limit);
+
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "where i.createdAt < :createdAt or (i.createdAt = :createdAt and i.id < :id) "
+            + "order by i.createdAt desc, i.id desc")
+    List<DataItemView> findFeedPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    // Лента одного автора: те же keyset-условия, читается по индексу ix_data_items_user_feed
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "where i.user.id = :userId "
+            + "order by i.createdAt desc, i.id desc")
+    List<DataItemView> findByUserFirstPage(@Param("userId") Long userId, Limit limit);
+
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "where i.user.id = :userId "
+            + "and (i.createdAt < :createdAt or (i.createdAt = :createdAt and i.id < :id)) "
+            + "order by i.createdAt desc, i.id desc")
+    List<DataItemView> findByUserPageAfter(@Param("userId") Long userId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    // Потоковое чтение всей ленты курсором БД: строки читаются порциями по fetchSize.
+    // Stream нужно закрывать и использовать внутри транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "order by i.createdAt desc, i.id desc")
+    Stream<DataItemView> streamFeed();
+
+    // Элементы по id (результаты поиска), порядок задает вызывающий
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "where i.id in :ids")
+    List<DataItemView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.createdAt from DataItem i where i.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+
+    // Элементы, созданные не раньше заданного времени, по возрастанию (created_at, id), кроме excludeId -
+    // догрузка потока после переподключения
+    @Query("select new com.infosec.secureapi.dto.DataItemView(i.id, i.titleHtml, i.contentHtml, u.usernameHtml, i.createdAt) "
+            + "from DataItem i join i.user u "
+            + "where i.createdAt >= :createdAt and i.id <> :excludeId "
+            + "order by i.createdAt, i.id")
+    List<DataItemView> findViewsCreatedSince(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("excludeId") Long excludeId,
+                                             Limit limit);
+
+    // Исходные тексты порциями по возрастанию (created_at, id) - для построения поискового индекса.
+    // Порядок id не совпадает с порядком коммитов (id выдаются блоками), поэтому ключ - время создания
+    @Query("select new com.infosec.secureapi.dto.DataItemText(i.id, i.title, i.content, i.createdAt) "
+            + "from DataItem i order by i.createdAt, i.id")
+    List<DataItemText> findTextsFirst(Limit limit);
+
+    @Query("select new com.infosec.secureapi.dto.DataItemText(i.id, i.title, i.content, i.createdAt) "
+            + "from DataItem i "
+            + "where i.createdAt > :createdAt or (i.createdAt = :createdAt and i.id > :id) "
+            + "order by i.createdAt, i.id")
+    List<DataItemText> findTextsAfter(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Limit limit);
 }
 
@@ -1,7 +1,12 @@
 package com.infosec.secureapi.repository;
 
+import com.infosec.secureapi.dto.AuthorSummary;
+import com.infosec.secureapi.dto.UserCredentials;
 import com.infosec.secureapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,5 +15,26 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    // Вход: выбираются только колонки покрывающего индекса по username, без обращения к таблице
+    @Query("select new com.infosec.secureapi.dto.UserCredentials(u.id, u.username, u.usernameHtml, u.password, "
+            + "u.credentialVersion) from User u where u.username = :username")
+    Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    @Query("select u.credentialVersion from User u where u.id = :id")
+    Optional<Integer> findCredentialVersionById(@Param("id") Long id);
+
+    @Query("select new com.infosec.secureapi.dto.AuthorSummary(u.id, u.usernameHtml, u.itemCount) "
+            + "from User u where u.username = :username")
+    Optional<AuthorSummary> findAuthorSummaryByUsername(@Param("username") String username);
+
+    @Query("select new com.infosec.secureapi.dto.AuthorSummary(u.id, u.usernameHtml, u.itemCount) "
+            + "from User u where u.id = :id")
+    Optional<AuthorSummary> findAuthorSummaryById(@Param("id") Long id);
+
+    // Атомарное приращение в БД: параллельные вставки одного автора не теряют друг друга
+    @Modifying
+    @Query("update User u set u.itemCount = u.itemCount + :delta where u.id = :id")
+    int incrementItemCount(@Param("id") Long id, @Param("delta") long delta);
 }
 
@@ -0,0 +1,44 @@
+package com.infosec.secureapi.security;
+
+import com.infosec.secureapi.dto.UserCredentials;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal приложения. Помимо имени несет id пользователя и версию его учетных данных,
+ * чтобы контроллерам и фильтру не приходилось повторно загружать пользователя из БД.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final int credentialVersion;
+
+    public AuthenticatedUser(Long id, String username, String password, int credentialVersion) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.credentialVersion = credentialVersion;
+    }
+
+    public static AuthenticatedUser fromCredentials(UserCredentials user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), user.getCredentialVersion());
+    }
+
+    /**
+     * Principal, восстановленный из claims проверенного токена. Хэш пароля в нем отсутствует.
+     */
+    public static AuthenticatedUser fromToken(VerifiedToken token) {
+        return new AuthenticatedUser(token.getUserId(), token.getUsername(), null, token.getCredentialVersion());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+}
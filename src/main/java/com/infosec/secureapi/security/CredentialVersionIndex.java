@@ -0,0 +1,77 @@
+package com.infosec.secureapi.security;
+
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import com.infosec.secureapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Индекс актуальных версий учетных данных: userId -> credentialVersion.
+ * Позволяет проверять токен без обращения к БД. Запись добавляется при регистрации,
+ * отсутствующая подгружается из основной БД один раз (например, после перезапуска): индекс общий
+ * для всех запросов, и отставшая реплика закрепила бы в нем устаревший ответ.
+ *
+ * Пользователь, которого нет в БД, запоминается только на MISS_TTL_NANOS: такой ответ возможен
+ * и для только что зарегистрированного на другом экземпляре пользователя, поэтому он не должен
+ * отклонять его токены до перезапуска.
+ */
+@Component
+public class CredentialVersionIndex {
+    private static final long MISS_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int MISS_SWEEP_THRESHOLD = 10_000;
+
+    private final UserRepository userRepository;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+    // userId -> System.nanoTime() промаха
+    private final ConcurrentHashMap<Long, Long> misses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CredentialVersionIndex(UserRepository userRepository, ReadYourWritesTracker readYourWrites) {
+        this.userRepository = userRepository;
+        this.readYourWrites = readYourWrites;
+    }
+
+    public boolean isCurrent(long userId, int credentialVersion) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            current = load(userId);
+        }
+        return current != null && current == credentialVersion;
+    }
+
+    private Integer load(long userId) {
+        long now = System.nanoTime();
+        Long missedAt = misses.get(userId);
+        if (missedAt != null) {
+            if (now - missedAt < MISS_TTL_NANOS) {
+                return null;
+            }
+            misses.remove(userId, missedAt);
+        }
+        // Запрос к БД вне computeIfAbsent: он не должен держать блокировку корзины ConcurrentHashMap.
+        // Версия, записанная update() за время запроса, новее прочитанной и не перезаписывается
+        Integer loaded = readYourWrites.onPrimary(() -> userRepository.findCredentialVersionById(userId)).orElse(null);
+        if (loaded == null) {
+            if (misses.size() >= MISS_SWEEP_THRESHOLD) {
+                misses.values().removeIf(at -> now - at >= MISS_TTL_NANOS);
+            }
+            misses.put(userId, now);
+            return null;
+        }
+        Integer raced = versions.putIfAbsent(userId, loaded);
+        return raced == null ? loaded : raced;
+    }
+
+    public void update(long userId, int credentialVersion) {
+        versions.put(userId, credentialVersion);
+        misses.remove(userId);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+}
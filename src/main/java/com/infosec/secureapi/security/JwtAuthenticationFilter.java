@@ -1,30 +1,62 @@
 package com.infosec.secureapi.security;
 
 import com.infosec.secureapi.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final CredentialVersionIndex credentialVersionIndex;
+    private final TokenDenylist tokenDenylist;
+    private final boolean claimsPrincipalEnabled;
+    // Время проверки токена по исходам: принят, недействителен, устаревшие учетные данные, отозван
+    private final Timer authenticatedTimer;
+    private final Timer invalidTimer;
+    private final Timer staleTimer;
+    private final Timer revokedTimer;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   CredentialVersionIndex credentialVersionIndex,
+                                   TokenDenylist tokenDenylist,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${jwt.claims-principal.enabled:false}") boolean claimsPrincipalEnabled) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.credentialVersionIndex = credentialVersionIndex;
+        this.tokenDenylist = tokenDenylist;
+        this.claimsPrincipalEnabled = claimsPrincipalEnabled;
+        this.authenticatedTimer = verificationTimer(meterRegistry, "authenticated");
+        this.invalidTimer = verificationTimer(meterRegistry, "invalid");
+        this.staleTimer = verificationTimer(meterRegistry, "stale");
+        this.revokedTimer = verificationTimer(meterRegistry, "revoked");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.verification")
+                .description("JWT verification and principal resolution in JwtAuthenticationFilter")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Override
@@ -37,12 +69,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        final long startedAt = System.nanoTime();
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
+        // Токен разбирается и проверяется один раз (или берется из кэша проверенных токенов)
+        VerifiedToken verified = jwtService.verifyToken(jwt);
+        if (verified == null) {
+            invalidTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        } else if (verified.getTokenId() != null
+                && tokenDenylist.isRevoked(verified.getTokenId(), verified.getExpiresAtMillis())) {
+            // Токен отозван через POST /auth/logout: запрос идет дальше без аутентификации
+            revokedTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            verified = null;
+        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(verified);
+            Timer outcomeTimer = userDetails != null ? authenticatedTimer : staleTimer;
+            outcomeTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -54,5 +98,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
 
+    /**
+     * В режиме claims-principal principal строится из claims токена и сверяется
+     * с индексом версий учетных данных в памяти, без запроса к БД.
+     * Токены без claims uid/cv проверяются по-старому через UserDetailsService.
+     */
+    private UserDetails resolvePrincipal(VerifiedToken verified) {
+        if (claimsPrincipalEnabled && verified.carriesPrincipal()) {
+            if (!credentialVersionIndex.isCurrent(verified.getUserId(), verified.getCredentialVersion())) {
+                return null;
+            }
+            return AuthenticatedUser.fromToken(verified);
+        }
+
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(verified.getUsername());
+            if (userDetails instanceof AuthenticatedUser user && verified.getCredentialVersion() != null
+                    && user.getCredentialVersion() != verified.getCredentialVersion()) {
+                return null;
+            }
+            return userDetails;
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.infosec.secureapi.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Пул хэширования паролей перегружен. Клиент получает 503 с Retry-After
+ * вместо ожидания в очереди потоков Tomcat.
+ */
+public class PasswordHashingBusyException extends ResponseStatusException {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public PasswordHashingBusyException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.infosec.secureapi.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов. Стоит в цепочке сразу после JwtAuthenticationFilter:
+ * запросы с принятым токеном ограничиваются по имени пользователя, /auth/** и запросы
+ * без аутентификации - по IP клиента. При превышении - 429 с заголовком Retry-After.
+ *
+ * IP берется из request.getRemoteAddr(): за обратным прокси нужно включить
+ * server.forward-headers-strategy, иначе все клиенты будут иметь адрес прокси.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final RateLimiter clientLimiter;
+    private final RateLimiter userLimiter;
+
+    @Autowired
+    public RateLimitFilter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.client.requests-per-second:5}") double clientRate,
+                           @Value("${security.rate-limit.client.burst:20}") int clientBurst,
+                           @Value("${security.rate-limit.user.requests-per-second:50}") double userRate,
+                           @Value("${security.rate-limit.user.burst:100}") int userBurst,
+                           @Value("${security.rate-limit.max-keys:100000}") int maxKeys) {
+        this.enabled = enabled;
+        this.clientLimiter = new RateLimiter(clientRate, clientBurst, maxKeys);
+        this.userLimiter = new RateLimiter(userRate, userBurst, maxKeys);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean authenticated = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+        long waitNanos;
+        if (!authenticated || request.getServletPath().startsWith("/auth/")) {
+            waitNanos = clientLimiter.tryAcquire(request.getRemoteAddr(), System.nanoTime());
+        } else {
+            waitNanos = userLimiter.tryAcquire(authentication.getName(), System.nanoTime());
+        }
+
+        if (waitNanos > 0) {
+            // Округление вверх до целых секунд
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Too many requests");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RateLimiter getClientLimiter() {
+        return clientLimiter;
+    }
+
+    public RateLimiter getUserLimiter() {
+        return userLimiter;
+    }
+}
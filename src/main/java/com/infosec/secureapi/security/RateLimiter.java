@@ -0,0 +1,133 @@
+package com.infosec.secureapi.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение частоты запросов по ключу: token bucket в форме GCRA.
+ * Состояние ключа - одно число (теоретическое время следующего запроса, TAT) в AtomicLong,
+ * запас токенов вычисляется из него при проверке, фонового пополнения нет.
+ * Проверка - чтение из ConcurrentHashMap и CAS, без блокировок.
+ *
+ * Ключ, у которого TAT уже в прошлом, имеет полный запас, и его удаление ничего не меняет.
+ * Такие ключи вычищаются не чаще раза в SWEEP_INTERVAL_NANOS: полный проход по ключам при каждом
+ * новом клиенте дал бы атакующему, перебирающему адреса, O(maxKeys) работы на запрос.
+ * Пока предел занят, новые ключи распределяются по хэшу между OVERFLOW_BUCKETS общими бакетами:
+ * память ограничена при любом числе различных клиентов, а лимит делят только ключи с одним хэшем.
+ * Хэш смешивается со случайной солью экземпляра, чтобы нельзя было заранее подобрать ключи,
+ * попадающие в бакет конкретного клиента.
+ */
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_NANOS = 60_000_000_000L;
+    private static final int OVERFLOW_BUCKETS = 1024;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final int maxKeys;
+    private final AtomicLong[] overflow = new AtomicLong[OVERFLOW_BUCKETS];
+    private final int overflowSalt = ThreadLocalRandom.current().nextInt();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong lastSweepNanos;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param permitsPerSecond средняя допустимая частота
+     * @param burst число запросов, которые можно выполнить подряд после простоя
+     * @param maxKeys предельное число отслеживаемых ключей
+     */
+    public RateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Rate, burst and max keys must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.capacityNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+        long now = System.nanoTime();
+        for (int i = 0; i < OVERFLOW_BUCKETS; i++) {
+            overflow[i] = new AtomicLong(now);
+        }
+        this.lastSweepNanos = new AtomicLong(now);
+    }
+
+    /**
+     * Забирает один токен ключа.
+     *
+     * @return 0, если запрос разрешен, иначе через сколько наносекунд появится токен
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = register(key, nowNanos);
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong register(String key, long nowNanos) {
+        if (nowNanos - lastSweepNanos.get() >= SWEEP_INTERVAL_NANOS) {
+            evictIdle(nowNanos);
+        }
+        if (buckets.size() >= maxKeys) {
+            return overflowBucket(key);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+    }
+
+    /**
+     * FNV-1a по символам ключа с солью вместо начального значения: у ключей с одинаковым
+     * String.hashCode (их легко подобрать) бакеты при этом разные.
+     */
+    private AtomicLong overflowBucket(String key) {
+        int hash = overflowSalt;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x01000193;
+        }
+        return overflow[(hash ^ (hash >>> 16)) & (OVERFLOW_BUCKETS - 1)];
+    }
+
+    /**
+     * Удаляет ключи с полным запасом токенов. Одновременно выполняется только одна очистка,
+     * остальные потоки ее не ждут. Запрос, успевший взять удаляемый бакет, может не учесться - это
+     * смещает лимит не более чем на один запрос в пользу клиента.
+     */
+    public void evictIdle(long nowNanos) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastSweepNanos.set(nowNanos);
+            buckets.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
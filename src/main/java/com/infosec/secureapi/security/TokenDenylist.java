@@ -0,0 +1,349 @@
+package com.infosec.secureapi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отозванные токены (POST /auth/logout) по claim jti.
+ *
+ * Токены раскладываются по корзинам по времени истечения (ширина корзины - bucket-ms).
+ * В корзине фильтр Блума для быстрого отрицательного ответа и точное множество jti, которое
+ * одно решает, отозван ли токен: положительный ответ фильтра всегда подтверждается по множеству,
+ * поэтому действующий токен никогда не считается отозванным. Проверка - поиск корзины
+ * в ConcurrentHashMap и k чтений битов, без блокировок и БД; для почти всех запросов
+ * (токен не отозван) ответ дает фильтр Блума.
+ * Корзина удаляется целиком, когда истекли все токены в ней, поэтому живых корзин не больше
+ * jwt.expiration / bucket-ms + 1.
+ *
+ * Фильтр корзины рассчитан на expected-per-bucket записей. Когда записей становится больше,
+ * под блокировкой корзины строится вдвое больший фильтр по точному множеству, и доля ложных
+ * срабатываний остается около 1%. Память ограничена общим пределом max-entries: сверх него отзыв
+ * отклоняется (revoke возвращает false, счетчик rejected и запись в лог), а не ослабляет проверку.
+ *
+ * При заданном jwt.denylist.file каждый отзыв дописывается в файл строкой "expiresAtMillis jti",
+ * при старте файл перечитывается и переписывается без истекших записей.
+ */
+@Component
+public class TokenDenylist implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long bucketMillis;
+    private final int expectedPerBucket;
+    private final long maxEntries;
+    private final int hashCount;
+    private final Path file;
+
+    private final ConcurrentHashMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private FileChannel channel;
+    // Предел достигнут: в лог пишется только первый отклоненный отзыв, дальше растет счетчик
+    private final AtomicBoolean full = new AtomicBoolean();
+
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+
+    @Autowired
+    public TokenDenylist(@Value("${jwt.denylist.bucket-ms:3600000}") long bucketMillis,
+                         @Value("${jwt.denylist.expected-per-bucket:10000}") int expectedPerBucket,
+                         @Value("${jwt.denylist.max-entries:500000}") long maxEntries,
+                         @Value("${jwt.denylist.file:}") String file) {
+        if (bucketMillis <= 0 || expectedPerBucket < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("Bucket width, expected and max entries must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.expectedPerBucket = expectedPerBucket;
+        this.maxEntries = maxEntries;
+        // Оптимальное число хэшей k = m / n ln 2 не зависит от n при m, пропорциональном n
+        this.hashCount = Math.max(1, (int) Math.round((double) bloomBits(expectedPerBucket) / expectedPerBucket * Math.log(2)));
+        this.file = file.isBlank() ? null : Path.of(file);
+        if (this.file != null) {
+            reload(System.currentTimeMillis());
+        } else {
+            log.warn("jwt.denylist.file is not set, revoked tokens are kept in memory only and are lost on restart");
+        }
+    }
+
+    /**
+     * Оптимальный размер фильтра Блума: m = -n ln p / (ln 2)^2.
+     */
+    private static int bloomBits(int entries) {
+        return (int) Math.ceil(-entries * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param tokenId claim jti
+     * @param expiresAtMillis срок действия токена, по нему выбирается корзина
+     */
+    public boolean isRevoked(String tokenId, long expiresAtMillis) {
+        Bucket bucket = buckets.get(bucketOf(expiresAtMillis));
+        if (bucket == null) {
+            return false;
+        }
+        if (!bucket.filter.mightContain(hash(tokenId))) {
+            return false;
+        }
+        bloomPositives.increment();
+        return bucket.exact.contains(tokenId);
+    }
+
+    /**
+     * Отзывает токен до истечения его срока действия.
+     * Предел max-entries соблюдается с точностью до числа параллельных отзывов.
+     *
+     * @return false, если отзыв отклонен: в списке уже max-entries неистекших токенов
+     */
+    public boolean revoke(String tokenId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now || isRevoked(tokenId, expiresAtMillis)) {
+            // Истекший токен отзывать не нужно; повторный выход с тем же токеном
+            return true;
+        }
+        evictExpired(now);
+        if (getEntryCount() >= maxEntries) {
+            rejected.increment();
+            if (full.compareAndSet(false, true)) {
+                log.error("Token denylist is full ({} entries), revocations are rejected until tokens expire",
+                        maxEntries);
+            }
+            return false;
+        }
+        full.set(false);
+        if (!add(tokenId, expiresAtMillis)) {
+            return true;
+        }
+        revoked.increment();
+        if (file != null) {
+            append(tokenId, expiresAtMillis);
+        }
+        return true;
+    }
+
+    /**
+     * @return false, если токен уже был отозван
+     */
+    private boolean add(String tokenId, long expiresAtMillis) {
+        return buckets.computeIfAbsent(bucketOf(expiresAtMillis), index -> new Bucket()).add(tokenId);
+    }
+
+    /**
+     * Удаляет корзины, все токены которых уже истекли.
+     */
+    public void evictExpired(long nowMillis) {
+        long current = bucketOf(nowMillis);
+        buckets.keySet().removeIf(index -> index < current);
+    }
+
+    private long bucketOf(long expiresAtMillis) {
+        return Math.floorDiv(expiresAtMillis, bucketMillis);
+    }
+
+    /**
+     * Закрывает файл отзывов при остановке приложения.
+     */
+    @Override
+    public void destroy() throws IOException {
+        fileLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void append(String tokenId, long expiresAtMillis) {
+        byte[] line = (expiresAtMillis + " " + tokenId + "\n").getBytes(StandardCharsets.UTF_8);
+        fileLock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Отзыв должен пережить перезапуск сразу после ответа на logout
+            channel.force(false);
+        } catch (IOException e) {
+            // Отзыв действует в памяти до перезапуска
+            log.error("Could not persist revoked token to {}: {}", file, e.getMessage());
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Загружает неистекшие записи и переписывает файл без истекших, затем открывает его на дозапись.
+     */
+    private void reload(long nowMillis) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            int loaded = 0;
+            if (Files.exists(file)) {
+                Path compacted = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                    for (String line : lines) {
+                        int separator = line.indexOf(' ');
+                        if (separator <= 0 || separator == line.length() - 1) {
+                            continue;
+                        }
+                        long expiresAtMillis;
+                        try {
+                            expiresAtMillis = Long.parseLong(line, 0, separator, 10);
+                        } catch (NumberFormatException e) {
+                            continue;
+                        }
+                        if (expiresAtMillis <= nowMillis) {
+                            continue;
+                        }
+                        if (!add(line.substring(separator + 1), expiresAtMillis)) {
+                            continue;
+                        }
+                        writer.write(line);
+                        writer.newLine();
+                        loaded++;
+                    }
+                }
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            log.info("Token denylist loaded {} revoked tokens from {}", loaded, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load token denylist from " + file, e);
+        }
+    }
+
+    /**
+     * 64-битный FNV-1a с финальным перемешиванием; из него получаются k индексов (двойное хэширование).
+     */
+    private static long hash(String tokenId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tokenId.length(); i++) {
+            hash ^= tokenId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public long getRevokedCount() {
+        return revoked.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getBloomPositiveCount() {
+        return bloomPositives.sum();
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    public long getEntryCount() {
+        long entries = 0;
+        for (Bucket bucket : buckets.values()) {
+            entries += bucket.exact.size();
+        }
+        return entries;
+    }
+
+    private final class Bucket {
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+        // Добавления в корзину последовательны, чтобы перестроение фильтра не потеряло записи
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile BloomFilter filter = new BloomFilter(expectedPerBucket, hashCount);
+
+        /**
+         * @return false, если токен уже есть
+         */
+        boolean add(String tokenId) {
+            lock.lock();
+            try {
+                // Точное множество пополняется раньше фильтра: увидевший биты увидит и запись
+                if (!exact.add(tokenId)) {
+                    return false;
+                }
+                BloomFilter current = filter;
+                if (exact.size() <= current.capacity) {
+                    current.put(hash(tokenId));
+                    return true;
+                }
+                BloomFilter grown = new BloomFilter(current.capacity * 2, hashCount);
+                for (String id : exact) {
+                    grown.put(hash(id));
+                }
+                filter = grown;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class BloomFilter {
+        private final int capacity;
+        private final int bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+
+        private BloomFilter(int capacity, int hashCount) {
+            this.capacity = capacity;
+            this.bitCount = bloomBits(capacity);
+            this.hashCount = hashCount;
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                bits.accumulateAndGet(bit >>> 6, mask, (current, update) -> current | update);
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.infosec.secureapi.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат однократной проверки подписи JWT.
+ * Хранит только те claims, которые нужны фильтру, чтобы повторно не разбирать токен.
+ */
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+    private final String username;
+    private final long expiresAtMillis;
+    // null для токенов, выпущенных без claims uid/cv
+    private final Long userId;
+    private final Integer credentialVersion;
+    // claim jti; null для токенов, выпущенных до появления отзыва
+    private final String tokenId;
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+
+    public boolean carriesPrincipal() {
+        return userId != null && credentialVersion != null;
+    }
+}
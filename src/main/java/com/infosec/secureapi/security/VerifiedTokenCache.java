@@ -0,0 +1,144 @@
+package com.infosec.secureapi.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный по размеру кэш уже проверенных JWT.
+ * Ключ - SHA-256 от токена, поэтому сами токены в памяти не хранятся.
+ *
+ * При заполнении вытесняется одна самая старая запись (FIFO), поэтому вставка не зависит от размера кэша.
+ * Истекшие записи удаляет фоновая очистка раз в sweep-interval-ms, а не путь вставки.
+ */
+public class VerifiedTokenCache implements AutoCloseable {
+    // Прототип клонируется на каждый вызов: ThreadLocal не дает выигрыша на виртуальных потоках,
+    // которые создаются на каждый запрос, а только плодит экземпляры
+    private static final MessageDigest SHA256 = newSha256();
+
+    private final ConcurrentHashMap<ByteBuffer, VerifiedToken> entries = new ConcurrentHashMap<>();
+    // Порядок вставки; ключи удаленных записей вычищаются при вытеснении и фоновой очистке
+    private final ConcurrentLinkedQueue<ByteBuffer> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxSize;
+    private final ScheduledExecutorService sweeper;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param sweepIntervalMillis период удаления истекших записей, 0 - без фоновой очистки
+     */
+    public VerifiedTokenCache(int maxSize, long sweepIntervalMillis) {
+        this.maxSize = maxSize;
+        if (maxSize > 0 && sweepIntervalMillis > 0) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jwt-cache-sweep");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(() -> evictExpired(System.currentTimeMillis()),
+                    sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    public VerifiedToken get(String token, long nowMillis) {
+        if (maxSize <= 0) {
+            misses.increment();
+            return null;
+        }
+        ByteBuffer key = keyOf(token);
+        VerifiedToken cached = entries.get(key);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (cached.isExpired(nowMillis)) {
+            entries.remove(key, cached);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    public void put(String token, VerifiedToken verified, long nowMillis) {
+        if (maxSize <= 0 || verified.isExpired(nowMillis)) {
+            return;
+        }
+        ByteBuffer key = keyOf(token);
+        if (entries.putIfAbsent(key, verified) != null) {
+            return;
+        }
+        insertionOrder.add(key);
+        while (entries.size() > maxSize) {
+            ByteBuffer eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            if (entries.remove(eldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void evict(String token) {
+        entries.remove(keyOf(token));
+    }
+
+    public void evictExpired(long nowMillis) {
+        entries.values().removeIf(entry -> entry.isExpired(nowMillis));
+        insertionOrder.removeIf(key -> !entries.containsKey(key));
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static ByteBuffer keyOf(String token) {
+        return ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return (MessageDigest) SHA256.clone();
+        } catch (CloneNotSupportedException e) {
+            return newSha256();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.infosec.secureapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Отрендеренный JSON страницы ленты вместе с его ETag.
+ * При gzip = true тело сжато и отдается с Content-Encoding: gzip.
+ */
+@Getter
+@AllArgsConstructor
+public class CachedFeed {
+    private final String etag;
+    private final byte[] body;
+    private final boolean gzip;
+}
@@ -0,0 +1,9 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.dto.DataItemRequest;
+
+/**
+ * Элемент, ожидающий вставки в группе (group commit), вместе с автором.
+ */
+public record DataItemSubmission(DataItemRequest request, Long authorId, String authorUsername) {
+}
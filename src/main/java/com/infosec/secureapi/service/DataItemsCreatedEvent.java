@@ -0,0 +1,22 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.dto.DataItemResponse;
+import com.infosec.secureapi.dto.DataItemText;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Публикуется DataService при создании элементов. Слушатели получают его после коммита
+ * транзакции (@TransactionalEventListener). items уже HTML-экранированы,
+ * texts - исходные тексты тех же элементов (для поискового индекса),
+ * authorIds - id автора каждого элемента (для журнала аудита).
+ */
+@Getter
+@AllArgsConstructor
+public class DataItemsCreatedEvent {
+    private final List<DataItemResponse> items;
+    private final List<DataItemText> texts;
+    private final List<Long> authorIds;
+}
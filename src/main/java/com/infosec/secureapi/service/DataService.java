@@ -1,62 +1,445 @@
 package com.infosec.secureapi.service;
 
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import com.infosec.secureapi.dto.AuthorFeedPage;
+import com.infosec.secureapi.dto.AuthorSummary;
+import com.infosec.secureapi.dto.DataFeedPage;
+import com.infosec.secureapi.dto.DataItemBatchResponse;
+import com.infosec.secureapi.dto.DataItemBatchResult;
 import com.infosec.secureapi.dto.DataItemRequest;
 import com.infosec.secureapi.dto.DataItemResponse;
+import com.infosec.secureapi.dto.DataItemText;
+import com.infosec.secureapi.dto.DataItemView;
+import com.infosec.secureapi.dto.DataSearchPage;
 import com.infosec.secureapi.entity.DataItem;
-import com.infosec.secureapi.entity.User;
 import com.infosec.secureapi.repository.DataItemRepository;
+import com.infosec.secureapi.entity.User;
+import com.infosec.secureapi.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.owasp.encoder.Encode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DataService {
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     private final DataItemRepository dataItemRepository;
+    private final UserRepository userRepository;
+    private final ItemJsonCache itemJsonCache;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWritesTracker readYourWrites;
+    private final SearchIndex searchIndex;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Timer feedPageTimer;
+    private final DistributionSummary feedPageSize;
+    private final Timer authorPageTimer;
+    private final Timer createSingleTimer;
+    private final Timer createBatchTimer;
+    private final Timer createGroupTimer;
+    private final DistributionSummary batchSize;
 
     @Autowired
-    public DataService(DataItemRepository dataItemRepository) {
+    public DataService(DataItemRepository dataItemRepository,
+                       UserRepository userRepository,
+                       ItemJsonCache itemJsonCache,
+                       Validator validator,
+                       ApplicationEventPublisher eventPublisher,
+                       ReadYourWritesTracker readYourWrites,
+                       SearchIndex searchIndex,
+                       MeterRegistry meterRegistry,
+                       @Value("${data.feed.default-page-size:50}") int defaultPageSize,
+                       @Value("${data.feed.max-page-size:200}") int maxPageSize) {
         this.dataItemRepository = dataItemRepository;
+        this.userRepository = userRepository;
+        this.itemJsonCache = itemJsonCache;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.searchIndex = searchIndex;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.feedPageTimer = Timer.builder("data.feed.page")
+                .description("Feed page query and mapping time")
+                .register(meterRegistry);
+        this.feedPageSize = DistributionSummary.builder("data.feed.page.items")
+                .description("Items returned per feed page")
+                .register(meterRegistry);
+        this.authorPageTimer = Timer.builder("data.feed.author.page")
+                .description("Per-author feed page query and mapping time")
+                .register(meterRegistry);
+        this.createSingleTimer = createTimer(meterRegistry, "single");
+        this.createBatchTimer = createTimer(meterRegistry, "batch");
+        this.createGroupTimer = createTimer(meterRegistry, "group");
+        this.batchSize = DistributionSummary.builder("data.items.batch.size")
+                .description("Items submitted per POST /api/data/batch")
+                .register(meterRegistry);
     }
 
+    private static Timer createTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("data.items.create")
+                .description("Data item creation time, without the transaction commit")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Первая страница ленты размером по умолчанию.
+     * Раньше возвращала всю таблицу, теперь ограничена, чтобы время ответа не росло с объемом данных.
+     */
     @Transactional(readOnly = true)
     public List<DataItemResponse> getAllDataItems() {
-        return dataItemRepository.findAllByOrderByCreatedAtDesc().stream()
-                .map(this::convertToResponse)
+        return getFeedPage(null, null).getItems();
+    }
+
+    /**
+     * Страница ленты с keyset-пагинацией по (createdAt, id).
+     *
+     * @param cursor курсор из предыдущей страницы или null для начала ленты
+     * @param limit размер страницы; null - размер по умолчанию, больше максимума - обрезается
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    @Transactional(readOnly = true)
+    public DataFeedPage getFeedPage(String cursor, Integer limit) {
+        long startedAt = System.nanoTime();
+        int pageSize = pageSize(limit);
+        // Запрашиваем на один элемент больше, чтобы узнать, есть ли следующая страница
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<DataItemView> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = dataItemRepository.findFeedFirstPage(fetchLimit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            rows = dataItemRepository.findFeedPageAfter(position.getCreatedAt(), position.getId(), fetchLimit);
+        }
+
+        DataFeedPage page = toFeedPage(rows, pageSize);
+        feedPageTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        feedPageSize.record(page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Страница элементов одного автора с той же keyset-пагинацией, что и общая лента.
+     * Автор определяется проекцией (id, имя, счетчик элементов) без загрузки сущности User,
+     * число элементов берется из поддерживаемого счетчика, а не из count(*).
+     *
+     * @return пустой Optional, если автора нет
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    @Transactional(readOnly = true)
+    public Optional<AuthorFeedPage> getAuthorFeedPage(String username, String cursor, Integer limit) {
+        return userRepository.findAuthorSummaryByUsername(username)
+                .map(author -> getAuthorFeedPage(author, cursor, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AuthorFeedPage> getAuthorFeedPage(Long authorId, String cursor, Integer limit) {
+        return userRepository.findAuthorSummaryById(authorId)
+                .map(author -> getAuthorFeedPage(author, cursor, limit));
+    }
+
+    private AuthorFeedPage getAuthorFeedPage(AuthorSummary author, String cursor, Integer limit) {
+        long startedAt = System.nanoTime();
+        int pageSize = pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<DataItemView> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = dataItemRepository.findByUserFirstPage(author.getId(), fetchLimit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            rows = dataItemRepository.findByUserPageAfter(
+                    author.getId(), position.getCreatedAt(), position.getId(), fetchLimit);
+        }
+
+        DataFeedPage page = toFeedPage(rows, pageSize);
+        authorPageTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return new AuthorFeedPage(author.getUsername(), author.getItemCount(), page.getItems(), page.getNextCursor());
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Обрезает выборку размером pageSize + 1 до страницы и строит курсор следующей страницы.
+     */
+    private static DataFeedPage toFeedPage(List<DataItemView> rows, int pageSize) {
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            DataItemView last = rows.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        List<DataItemResponse> items = rows.stream()
+                .map(DataService::convertToResponse)
                 .collect(Collectors.toList());
+        return new DataFeedPage(items, nextCursor);
+    }
+
+    /**
+     * Полнотекстовый поиск по title и content через индекс в памяти.
+     * Найденные элементы загружаются одним запросом по id; удаленные после индексации пропускаются.
+     *
+     * @param limit размер страницы; null - размер по умолчанию, больше максимума - обрезается
+     */
+    @Transactional(readOnly = true)
+    public DataSearchPage searchDataItems(String query, int offset, Integer limit) {
+        int pageSize = pageSize(limit);
+        SearchResult result = searchIndex.search(query, Math.max(0, offset), pageSize);
+        List<DataItemResponse> items = new ArrayList<>(result.getItemIds().size());
+        if (!result.getItemIds().isEmpty()) {
+            Map<Long, DataItemView> views = new HashMap<>();
+            for (DataItemView view : dataItemRepository.findViewsByIds(result.getItemIds())) {
+                views.put(view.getId(), view);
+            }
+            for (Long id : result.getItemIds()) {
+                DataItemView view = views.get(id);
+                if (view != null) {
+                    items.add(convertToResponse(view));
+                }
+            }
+        }
+        int next = Math.max(0, offset) + pageSize;
+        return new DataSearchPage(items, result.getTotal(), next < result.getTotal() ? next : null);
+    }
+
+    /**
+     * Элементы для догрузки потока GET /api/data/stream по Last-Event-ID, по возрастанию (created_at, id).
+     * Id и время создания назначаются до коммита, а id еще и выдаются блоками, поэтому элемент,
+     * закоммиченный позже afterId, может иметь и меньший id, и более раннее время. Выборка начинается
+     * за window до создания afterId; элементы окна, которые клиент уже получил, придут повторно.
+     *
+     * @return null, если элемента afterId нет
+     */
+    @Transactional(readOnly = true)
+    public List<DataItemResponse> getItemsAfter(long afterId, Duration window, int limit) {
+        Optional<LocalDateTime> createdAt = dataItemRepository.findCreatedAtById(afterId);
+        if (createdAt.isEmpty()) {
+            return null;
+        }
+        return dataItemRepository.findViewsCreatedSince(createdAt.get().minus(window), afterId, Limit.of(limit))
+                .stream()
+                .map(DataService::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Выгрузка всей ленты в формате NDJSON (один JSON-объект на строку).
+     * Строки читаются из БД курсором и сразу пишутся в выходной поток,
+     * поэтому потребление памяти не зависит от размера таблицы.
+     * JSON элементов, уже лежащих в кэше фрагментов, копируется оттуда; новые фрагменты
+     * при выгрузке в кэш не добавляются, чтобы не вытеснять элементы, нужные ленте.
+     */
+    @Transactional(readOnly = true)
+    public void exportFeed(OutputStream out) throws IOException {
+        try (Stream<DataItemView> rows = dataItemRepository.streamFeed()) {
+            Iterator<DataItemView> iterator = rows.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(itemJsonCache.fragment(convertToResponse(iterator.next()), false).json()
+                        .getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                // Периодический flush, чтобы клиент начинал получать данные сразу
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
     }
 
     @Transactional
-    public DataItemResponse createDataItem(DataItemRequest request, User user) {
+    public DataItemResponse createDataItem(DataItemRequest request, Long authorId, String authorUsername) {
+        long startedAt = System.nanoTime();
         DataItem dataItem = new DataItem();
         // Сохраняем данные как есть (без экранирования) в БД
         dataItem.setTitle(request.getTitle());
         dataItem.setContent(request.getContent());
-        dataItem.setUser(user);
-        
+        // и один раз вычисляем их HTML-экранированные копии для отдачи в ленте
+        applyHtml(dataItem);
+        // Для внешнего ключа достаточно ссылки по id, SELECT пользователя не выполняется
+        dataItem.setUser(userRepository.getReferenceById(authorId));
+
         DataItem saved = dataItemRepository.save(dataItem);
-        // Санитизируем при возврате (output encoding)
-        return convertToResponse(saved);
+        userRepository.incrementItemCount(authorId, 1);
+        // После коммита ближайшие чтения автора пойдут на основную БД, пока реплики догоняют
+        readYourWrites.recordWrite(authorUsername);
+        DataItemResponse response = convertToResponse(saved, authorUsername);
+        // Слушатели (кэш ленты и др.) получат событие только после коммита
+        eventPublisher.publishEvent(new DataItemsCreatedEvent(List.of(response),
+                List.of(new DataItemText(saved.getId(), saved.getTitle(), saved.getContent(), saved.getCreatedAt())),
+                List.of(authorId)));
+        createSingleTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return response;
+    }
+
+    /**
+     * Пакетное создание элементов. Каждый элемент валидируется отдельно, невалидные
+     * пропускаются с описанием ошибок, валидные вставляются в одной транзакции JDBC batch'ами.
+     */
+    @Transactional
+    public DataItemBatchResponse createDataItems(List<DataItemRequest> requests, Long authorId, String authorUsername) {
+        long startedAt = System.nanoTime();
+        batchSize.record(requests.size());
+        User author = userRepository.getReferenceById(authorId);
+        List<DataItemBatchResult> results = new ArrayList<>(requests.size());
+        List<DataItem> toSave = new ArrayList<>(requests.size());
+        List<DataItemBatchResult> pending = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            DataItemRequest request = requests.get(i);
+            List<String> errors = validate(request);
+            DataItemBatchResult result = new DataItemBatchResult(i, errors.isEmpty(), null, errors);
+            results.add(result);
+            if (errors.isEmpty()) {
+                DataItem dataItem = new DataItem();
+                dataItem.setTitle(request.getTitle());
+                dataItem.setContent(request.getContent());
+                applyHtml(dataItem);
+                dataItem.setUser(author);
+                toSave.add(dataItem);
+                pending.add(result);
+            }
+        }
+
+        List<DataItem> saved = dataItemRepository.saveAll(toSave);
+        if (!saved.isEmpty()) {
+            userRepository.incrementItemCount(authorId, saved.size());
+        }
+        readYourWrites.recordWrite(authorUsername);
+        // Принудительный flush, чтобы вставки ушли batch'ами внутри этого метода, а id и ошибки БД были известны
+        dataItemRepository.flush();
+        String usernameHtml = escapeHtml(authorUsername);
+        List<DataItemResponse> created = new ArrayList<>(saved.size());
+        List<DataItemText> texts = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            DataItem item = saved.get(i);
+            DataItemResponse response = new DataItemResponse(
+                    item.getId(), item.getTitleHtml(), item.getContentHtml(), usernameHtml, item.getCreatedAt());
+            pending.get(i).setItem(response);
+            created.add(response);
+            texts.add(new DataItemText(item.getId(), item.getTitle(), item.getContent(), item.getCreatedAt()));
+        }
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new DataItemsCreatedEvent(created, texts,
+                    Collections.nCopies(created.size(), authorId)));
+        }
+        createBatchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return new DataItemBatchResponse(saved.size(), requests.size() - saved.size(), results);
     }
 
     /**
-     * Конвертация сущности в DTO с санитизацией всех строковых полей
-     * Санитизация применяется при выходе (output encoding) для защиты от XSS
+     * Вставка элементов разных авторов одной транзакцией (group commit, см. GroupCommitWriter).
+     * Запросы уже провалидированы контроллером. Счетчики авторов обновляются по одному UPDATE
+     * на автора в порядке id, слушатели получают одно событие на всю группу.
+     *
+     * @return созданные элементы в порядке submissions
      */
-    private DataItemResponse convertToResponse(DataItem item) {
+    @Transactional
+    public List<DataItemResponse> createDataItemsGrouped(List<DataItemSubmission> submissions) {
+        long startedAt = System.nanoTime();
+        List<DataItem> toSave = new ArrayList<>(submissions.size());
+        Map<Long, Long> createdPerAuthor = new TreeMap<>();
+        for (DataItemSubmission submission : submissions) {
+            DataItem dataItem = new DataItem();
+            dataItem.setTitle(submission.request().getTitle());
+            dataItem.setContent(submission.request().getContent());
+            applyHtml(dataItem);
+            dataItem.setUser(userRepository.getReferenceById(submission.authorId()));
+            toSave.add(dataItem);
+            createdPerAuthor.merge(submission.authorId(), 1L, Long::sum);
+        }
+
+        List<DataItem> saved = dataItemRepository.saveAll(toSave);
+        dataItemRepository.flush();
+        createdPerAuthor.forEach(userRepository::incrementItemCount);
+
+        List<DataItemResponse> created = new ArrayList<>(saved.size());
+        List<DataItemText> texts = new ArrayList<>(saved.size());
+        List<Long> authorIds = new ArrayList<>(saved.size());
+        Set<String> authors = new HashSet<>();
+        for (int i = 0; i < saved.size(); i++) {
+            DataItem item = saved.get(i);
+            String authorUsername = submissions.get(i).authorUsername();
+            authorIds.add(submissions.get(i).authorId());
+            authors.add(authorUsername);
+            created.add(convertToResponse(item, authorUsername));
+            texts.add(new DataItemText(item.getId(), item.getTitle(), item.getContent(), item.getCreatedAt()));
+        }
+        authors.forEach(readYourWrites::recordWrite);
+        eventPublisher.publishEvent(new DataItemsCreatedEvent(created, texts, authorIds));
+        createGroupTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return created;
+    }
+
+    private List<String> validate(DataItemRequest request) {
+        if (request == null) {
+            return List.of("Item cannot be null");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<DataItemRequest> violation : validator.validate(request)) {
+            errors.add(violation.getMessage());
+        }
+        return errors;
+    }
+
+    /**
+     * Заполняет экранированные копии полей элемента из исходных значений.
+     */
+    static void applyHtml(DataItem item) {
+        item.setTitleHtml(escapeHtml(item.getTitle()));
+        item.setContentHtml(escapeHtml(item.getContent()));
+    }
+
+    /**
+     * Конвертация проекции в DTO. Строковые поля проекции уже экранированы при записи
+     * (output encoding выполнен заранее), поэтому повторное кодирование не требуется
+     */
+    public static DataItemResponse convertToResponse(DataItemView view) {
         DataItemResponse response = new DataItemResponse();
-        response.setId(item.getId());
-        // Санитизируем все пользовательские данные при возврате
-        response.setTitle(escapeHtml(item.getTitle()));
-        response.setContent(escapeHtml(item.getContent()));
-        response.setUsername(escapeHtml(item.getUser().getUsername()));
-        response.setCreatedAt(item.getCreatedAt());
+        response.setId(view.getId());
+        response.setTitle(view.getTitle());
+        response.setContent(view.getContent());
+        response.setUsername(view.getUsername());
+        response.setCreatedAt(view.getCreatedAt());
         return response;
     }
 
+    private DataItemResponse convertToResponse(DataItem item, String username) {
+        return convertToResponse(new DataItemView(
+                item.getId(), item.getTitleHtml(), item.getContentHtml(), escapeHtml(username), item.getCreatedAt()));
+    }
+
     /**
      * Экранирование HTML символов для защиты от XSS (Cross-Site Scripting)
      * Применяется ко всем данным, возвращаемым в API ответах
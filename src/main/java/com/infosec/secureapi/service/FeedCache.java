@@ -0,0 +1,260 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш отрендеренных страниц ленты, привязанный к версии данных.
+ * Версия монотонно растет после коммита каждого создания элементов; ETag = (экземпляр, версия,
+ * хэш ключа страницы), поэтому совпавший If-None-Match можно подтвердить без обращения к БД.
+ * Ключ входит в ETag, чтобы разные страницы, в том числе ленты /me разных пользователей
+ * по одному URL, никогда не получали одинаковый ETag.
+ * Объем ограничен суммарным размером тел, вытесняются давно не использованные страницы (LRU).
+ *
+ * Элементы в странице пишутся готовыми фрагментами из ItemJsonCache, поэтому после сброса
+ * кэша страница собирается копированием байтов, а не сериализацией элементов заново.
+ * При data.feed.gzip.enabled рядом с телом хранится его gzip-вариант: он сжимается один раз
+ * при первом запросе с Accept-Encoding: gzip и учитывается в общем объеме.
+ */
+@Component
+public class FeedCache {
+    // Случайный префикс отличает ETag'и разных запусков, у которых версии начинаются заново
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+    private final JsonMapper pageMapper;
+    private final ReadYourWritesTracker readYourWrites;
+    private final long maxBytes;
+    private final boolean gzipEnabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    @Autowired
+    public FeedCache(JsonMapper jsonMapper,
+                     ItemJsonCache itemJsonCache,
+                     ReadYourWritesTracker readYourWrites,
+                     @Value("${data.feed.cache.max-bytes:16777216}") long maxBytes,
+                     @Value("${data.feed.gzip.enabled:false}") boolean gzipEnabled) {
+        // Отдельный маппер: остальные ответы (создание, поиск) сериализуются без кэша фрагментов
+        this.pageMapper = jsonMapper.rebuild().addModule(itemJsonCache.module()).build();
+        this.readYourWrites = readYourWrites;
+        this.maxBytes = maxBytes;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    /**
+     * ETag страницы key в текущей версии. У gzip-варианта свой ETag: это другое представление ресурса.
+     */
+    public String currentETag(String key, boolean gzip) {
+        return etagFor(key, version.get(), gzip);
+    }
+
+    /**
+     * Возвращает отрендеренную страницу из кэша или строит ее через loader.
+     * Результат кэшируется, только если версия не изменилась за время построения.
+     *
+     * @param gzip вернуть тело, сжатое gzip (только при data.feed.gzip.enabled)
+     */
+    public CachedFeed getOrRender(String key, Supplier<Object> loader, boolean gzip) {
+        boolean compressed = gzip && gzipEnabled;
+        long renderVersion = version.get();
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.version == renderVersion) {
+                hits.increment();
+                if (!compressed) {
+                    return new CachedFeed(etagFor(key, renderVersion, false), entry.body, false);
+                }
+                if (entry.gzipBody != null) {
+                    return new CachedFeed(etagFor(key, renderVersion, true), entry.gzipBody, true);
+                }
+            } else {
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (entry != null) {
+            // Страница уже в кэше, не хватает только сжатого варианта
+            byte[] gzipBody = gzip(entry.body);
+            attachGzip(key, entry, gzipBody);
+            return new CachedFeed(etagFor(key, renderVersion, true), gzipBody, true);
+        }
+
+        misses.increment();
+        // Страница отдается всем клиентам до следующей записи, поэтому строится по основной БД:
+        // с отставшей реплики в кэш текущей версии попали бы данные без последних элементов
+        byte[] body = pageMapper.writeValueAsBytes(readYourWrites.onPrimary(loader));
+        byte[] gzipBody = compressed ? gzip(body) : null;
+        store(key, renderVersion, body, gzipBody);
+        return compressed
+                ? new CachedFeed(etagFor(key, renderVersion, true), gzipBody, true)
+                : new CachedFeed(etagFor(key, renderVersion, false), body, false);
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    @TransactionalEventListener
+    public void onDataItemsCreated(DataItemsCreatedEvent event) {
+        version.incrementAndGet();
+        lock.lock();
+        try {
+            // Страницы старой версии больше не будут отданы, освобождаем память сразу
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(String key, long renderVersion, byte[] body, byte[] gzipBody) {
+        Entry entry = new Entry(renderVersion, body);
+        entry.gzipBody = gzipBody;
+        if (entry.size() > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (version.get() != renderVersion) {
+                return;
+            }
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.size();
+            }
+            totalBytes += entry.size();
+            evictEldest();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void attachGzip(String key, Entry entry, byte[] gzipBody) {
+        lock.lock();
+        try {
+            // Запись могли вытеснить или сбросить, пока тело сжималось
+            if (entries.get(key) != entry || entry.gzipBody != null) {
+                return;
+            }
+            entry.gzipBody = gzipBody;
+            totalBytes += gzipBody.length;
+            evictEldest();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(body);
+        } catch (IOException e) {
+            // Запись в память не бросает IOException
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private String etagFor(String key, long feedVersion, boolean gzip) {
+        return "\"" + instanceId + "-" + feedVersion + "-" + Long.toHexString(keyHash(key))
+                + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * 64-битный FNV-1a: ключ содержит имя пользователя из URL, в ETag попадает только его хэш.
+     */
+    static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final byte[] body;
+        // Заполняется под lock при первом запросе gzip-варианта
+        private byte[] gzipBody;
+
+        private Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+
+        private long size() {
+            return body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import com.infosec.secureapi.dto.DataItemResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рассылка созданных элементов подписчикам GET /api/data/stream (Server-Sent Events).
+ *
+ * Элементы приходят после коммита транзакции, уже HTML-экранированные. Каждый элемент
+ * сериализуется в готовый SSE-кадр один раз, и кадры одного коммита раскладываются одной записью
+ * по ограниченным очередям подписчиков (кадры общие, подписчик хранит только ссылки);
+ * из очереди кадр пишет в соединение отдельный виртуальный поток подписчика. Поток, создавший элементы,
+ * никогда не ждет медленного клиента: если очередь подписчика заполнена, подписчик отключается
+ * и при переподключении догоняет пропущенное по Last-Event-ID.
+ *
+ * Доставка - не менее одного раза: догрузка перечитывает элементы за catch-up-window-ms до последнего
+ * полученного (порядок id не совпадает с порядком коммитов), и клиент отсеивает повторы по id.
+ */
+@Component
+public class FeedStream implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(FeedStream.class);
+
+    // Комментарий SSE: держит соединение открытым через прокси и выявляет ушедших клиентов
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    // Разрыв больше catch-up-limit: клиенту нужно заново загрузить ленту
+    private static final byte[] RESET = "event: reset\ndata: reload\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final MediaType EVENT_STREAM = MediaType.TEXT_EVENT_STREAM;
+
+    private final DataService dataService;
+    private final ReadYourWritesTracker readYourWrites;
+    private final JsonMapper jsonMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int catchUpLimit;
+    private final Duration catchUpWindow;
+    private final long heartbeatMillis;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("feed-stream-", 0).factory();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public FeedStream(DataService dataService,
+                      ReadYourWritesTracker readYourWrites,
+                      JsonMapper jsonMapper,
+                      @Value("${data.stream.buffer-size:256}") int bufferSize,
+                      @Value("${data.stream.max-subscribers:10000}") int maxSubscribers,
+                      @Value("${data.stream.catch-up-limit:1000}") int catchUpLimit,
+                      @Value("${data.stream.catch-up-window-ms:5000}") long catchUpWindowMillis,
+                      @Value("${data.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.dataService = dataService;
+        this.readYourWrites = readYourWrites;
+        this.jsonMapper = jsonMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.catchUpLimit = catchUpLimit;
+        this.catchUpWindow = Duration.ofMillis(catchUpWindowMillis);
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * Открывает поток для нового подписчика.
+     *
+     * @param lastEventId id последнего полученного элемента или null для потока только новых элементов
+     * @return null, если достигнут предел числа подписчиков
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (!running || subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, lastEventId);
+        // Подписчик регистрируется до запроса пропущенных элементов, поэтому созданное
+        // в промежутке попадет в очередь, а повторы отсеются по id
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.start();
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onDataItemsCreated(DataItemsCreatedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<Frame> frames = new ArrayList<>(event.getItems().size());
+        for (DataItemResponse item : event.getItems()) {
+            frames.add(frame(item));
+        }
+        published.add(frames.size());
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(frames) && subscriber.close()) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private Frame frame(DataItemResponse item) {
+        String json = jsonMapper.writeValueAsString(item);
+        byte[] bytes = ("id: " + item.getId() + "\nevent: item\ndata: " + json + "\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+        return new Frame(item.getId(), bytes);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Закрывает потоки до остановки веб-сервера, иначе graceful shutdown ждал бы их до таймаута.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.forEach(Subscriber::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private record Frame(long id, byte[] bytes) {
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final Long lastEventId;
+        // Элемент очереди - кадры одного коммита
+        private final ArrayBlockingQueue<List<Frame>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile Thread thread;
+        // id элементов, отправленных при догрузке: те же элементы могли попасть и в очередь
+        private Set<Long> caughtUp = Set.of();
+
+        private Subscriber(SseEmitter emitter, Long lastEventId) {
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+
+        void start() {
+            thread = threadFactory.newThread(this);
+            thread.start();
+        }
+
+        /**
+         * Может вызываться из любого потока и не блокируется: запись и завершение ответа
+         * выполняет только поток подписчика. Подписчик сразу перестает получать кадры и освобождает
+         * очередь, даже если его поток еще заблокирован в записи медленному клиенту
+         * (такая запись прерывается по таймауту сокета).
+         *
+         * @return true при первом вызове
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            subscribers.remove(this);
+            queue.clear();
+            Thread current = thread;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (lastEventId != null) {
+                    catchUp();
+                }
+                while (!closed.get()) {
+                    List<Frame> frames = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (frames == null) {
+                        write(HEARTBEAT);
+                        continue;
+                    }
+                    for (Frame frame : frames) {
+                        if (!caughtUp.contains(frame.id())) {
+                            write(frame.bytes());
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Отключен: переполнение очереди, таймаут или остановка приложения
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Feed stream subscriber disconnected: {}", e.getMessage());
+            } finally {
+                close();
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // Ответ уже завершен контейнером
+                }
+            }
+        }
+
+        private void catchUp() throws IOException {
+            // С основной БД: реплика может еще не иметь элементов, которые подписчик уже пропустил
+            List<DataItemResponse> missed = readYourWrites.onPrimary(
+                    () -> dataService.getItemsAfter(lastEventId, catchUpWindow, catchUpLimit + 1));
+            // Неизвестный Last-Event-ID: с какого места продолжать, определить нельзя
+            if (missed == null || missed.size() > catchUpLimit) {
+                write(RESET);
+                return;
+            }
+            Set<Long> sent = new HashSet<>(missed.size() * 2);
+            for (DataItemResponse item : missed) {
+                write(frame(item).bytes());
+                sent.add(item.getId());
+            }
+            caughtUp = sent;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            // Готовые байты пишутся как есть (ByteArrayHttpMessageConverter), без повторной сериализации
+            emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(bytes, EVENT_STREAM)));
+        }
+    }
+}
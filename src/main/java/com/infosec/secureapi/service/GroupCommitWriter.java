@@ -0,0 +1,232 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.dto.DataItemRequest;
+import com.infosec.secureapi.dto.DataItemResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Групповой коммит для POST /api/data (включается data.group-commit.enabled).
+ *
+ * Запросы на создание ставятся в ограниченную очередь, единственный поток-писатель забирает
+ * все накопившиеся, при необходимости дожидается новых до max-delay-ms или max-batch-size
+ * и вставляет группу одной транзакцией JDBC batch'ами. Future каждого запроса завершается
+ * созданным элементом после коммита. Пока писатель занят коммитом, следующие запросы копятся
+ * в очереди, поэтому под нагрузкой группы растут сами, а при малой нагрузке задержка не больше max-delay-ms.
+ *
+ * Если транзакция группы не прошла, каждый элемент повторяется отдельной транзакцией
+ * обычным путем DataService.createDataItem, и ошибка достается только своему запросу.
+ */
+@Component
+public class GroupCommitWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final DataService dataService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ArrayBlockingQueue<Pending> queue;
+    private final DistributionSummary groupSize;
+    private final Counter fallbacks;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public GroupCommitWriter(DataService dataService,
+                             MeterRegistry meterRegistry,
+                             @Value("${data.group-commit.enabled:false}") boolean enabled,
+                             @Value("${data.group-commit.max-batch-size:200}") int maxBatchSize,
+                             @Value("${data.group-commit.max-delay-ms:2}") long maxDelayMillis,
+                             @Value("${data.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.dataService = dataService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.groupSize = DistributionSummary.builder("data.items.group.commit.size")
+                .description("Items inserted per group-commit transaction")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("data.items.group.commit.fallbacks")
+                .description("Groups that failed and were retried item by item")
+                .register(meterRegistry);
+        Gauge.builder("data.items.group.commit.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("Create requests waiting for the group-commit writer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ставит элемент в очередь на вставку.
+     *
+     * @return future, завершаемый созданным элементом после коммита или ошибкой этого элемента
+     * @throws WriteQueueBusyException если очередь заполнена или писатель остановлен
+     */
+    public CompletableFuture<DataItemResponse> submit(DataItemRequest request, Long authorId, String authorUsername) {
+        if (!running) {
+            throw new WriteQueueBusyException("Write queue is not accepting items");
+        }
+        Pending pending = new Pending(new DataItemSubmission(request, authorId, authorUsername));
+        if (!queue.offer(pending)) {
+            throw new WriteQueueBusyException("Write queue is full");
+        }
+        return pending.future;
+    }
+
+    /**
+     * Ставит элемент в очередь и ждет его коммита в составе группы.
+     * Ошибка вставки этого элемента пробрасывается как есть.
+     */
+    public DataItemResponse create(DataItemRequest request, Long authorId, String authorUsername) {
+        try {
+            return submit(request, authorId, authorUsername).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> group = new ArrayList<>(maxBatchSize);
+        // После stop() писатель дописывает все, что успело попасть в очередь
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxBatchSize - group.size());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    queue.drainTo(group, maxBatchSize - group.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(group);
+            }
+            if (!group.isEmpty()) {
+                try {
+                    write(group);
+                } catch (Throwable e) {
+                    // Ни один вызывающий не должен остаться ждать навсегда
+                    group.forEach(pending -> pending.future.completeExceptionally(e));
+                    log.error("Group commit writer failed", e);
+                } finally {
+                    group.clear();
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void write(List<Pending> group) {
+        groupSize.record(group.size());
+        List<DataItemSubmission> submissions = new ArrayList<>(group.size());
+        for (Pending pending : group) {
+            submissions.add(pending.submission);
+        }
+        try {
+            List<DataItemResponse> created = dataService.createDataItemsGrouped(submissions);
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).future.complete(created.get(i));
+            }
+            return;
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            log.warn("Group commit of {} items failed, retrying one by one: {}", group.size(), e.getMessage());
+        }
+        for (Pending pending : group) {
+            DataItemSubmission submission = pending.submission;
+            try {
+                pending.future.complete(dataService.createDataItem(
+                        submission.request(), submission.authorId(), submission.authorUsername()));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "data-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        // Элементы, поставленные в очередь в момент остановки писателя
+        List<Pending> rejected = new ArrayList<>();
+        queue.drainTo(rejected);
+        rejected.forEach(pending -> pending.future.completeExceptionally(
+                new WriteQueueBusyException("Write queue is not accepting items")));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Останавливается после веб-сервера: запросы, дожидающиеся при graceful shutdown,
+     * еще могут поставить элементы в очередь и получить ответ.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class Pending {
+        private final DataItemSubmission submission;
+        private final CompletableFuture<DataItemResponse> future = new CompletableFuture<>();
+
+        private Pending(DataItemSubmission submission) {
+            this.submission = submission;
+        }
+    }
+}
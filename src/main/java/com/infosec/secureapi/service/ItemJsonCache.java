@@ -0,0 +1,125 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.dto.DataItemResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш JSON отдельных элементов ленты по id.
+ *
+ * Элементы после создания не меняются, поэтому JSON элемента (уже HTML-экранированный)
+ * рендерится один раз и затем только копируется в тело страницы. В отличие от кэша
+ * страниц (FeedCache), который сбрасывается при каждом создании элементов, фрагменты переживают
+ * смену версии ленты: новая страница после записи собирается из готовых фрагментов, сериализуются
+ * только новые элементы.
+ *
+ * Кэшируются только элементы, прочитанные из БД: у только что созданного элемента createdAt
+ * точнее, чем после сохранения в БД, и его JSON отличался бы от JSON в ленте.
+ * Объем ограничен суммарным размером фрагментов; вытесняются добавленные раньше всех (FIFO) -
+ * в ленту чаще всего попадают новые элементы, а они добавляются последними.
+ */
+@Component
+public class ItemJsonCache {
+    // Узел ConcurrentHashMap, Long, JsonFragment, String, заголовок массива строки и узел очереди
+    private static final int ENTRY_OVERHEAD_BYTES = 32 + 16 + 24 + 24 + 16 + 24;
+
+    private final JsonMapper jsonMapper;
+    private final long maxBytes;
+
+    private final ConcurrentHashMap<Long, JsonFragment> fragments = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public ItemJsonCache(JsonMapper jsonMapper,
+                         @Value("${data.feed.item-cache.max-bytes:33554432}") long maxBytes) {
+        this.jsonMapper = jsonMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Модуль Jackson, который пишет DataItemResponse готовым фрагментом из кэша.
+     * Подключается только к мапперу, рендерящему страницы ленты из БД.
+     */
+    public SimpleModule module() {
+        return new SimpleModule("item-json-cache").addSerializer(DataItemResponse.class, new CachedItemSerializer());
+    }
+
+    /**
+     * Возвращает JSON элемента из кэша или рендерит его.
+     *
+     * @param store сохранять ли отрендеренный фрагмент (выгрузка всей ленты не должна вытеснять горячие элементы)
+     */
+    public JsonFragment fragment(DataItemResponse item, boolean store) {
+        Long id = item.getId();
+        JsonFragment cached = id == null ? null : fragments.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        JsonFragment rendered = new JsonFragment(jsonMapper.writeValueAsString(item));
+        if (store && id != null) {
+            put(id, rendered);
+        }
+        return rendered;
+    }
+
+    private void put(Long id, JsonFragment fragment) {
+        long weight = weight(fragment);
+        if (weight > maxBytes || fragments.putIfAbsent(id, fragment) != null) {
+            return;
+        }
+        insertionOrder.add(id);
+        long total = totalBytes.addAndGet(weight);
+        while (total > maxBytes) {
+            Long eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            JsonFragment removed = fragments.remove(eldest);
+            total = removed == null ? totalBytes.get() : totalBytes.addAndGet(-weight(removed));
+        }
+    }
+
+    private static long weight(JsonFragment fragment) {
+        return fragment.memoryBytes() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    public int size() {
+        return fragments.size();
+    }
+
+    private final class CachedItemSerializer extends ValueSerializer<DataItemResponse> {
+        @Override
+        public void serialize(DataItemResponse value, JsonGenerator gen, SerializationContext ctxt) {
+            gen.writeRawValue(fragment(value, true).json());
+        }
+    }
+}
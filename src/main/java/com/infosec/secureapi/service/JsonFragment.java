@@ -0,0 +1,29 @@
+package com.infosec.secureapi.service;
+
+/**
+ * Готовое JSON-значение для вставки в ответ через JsonGenerator.writeRawValue(String):
+ * генератор только перекодирует символы в свой буфер, без повторной сериализации и экранирования.
+ * Хранится строкой, а не байтами UTF-8: у JsonGenerator нет writeRawValue(byte[]), а вставка байтов
+ * через SerializableString потребовала бы реализовать и методы строкового литерала.
+ */
+public final class JsonFragment {
+    private final String json;
+    private final int memoryBytes;
+
+    public JsonFragment(String json) {
+        this.json = json;
+        // Compact strings: по байту на символ, если все символы из Latin-1, иначе по два
+        this.memoryBytes = json.chars().allMatch(c -> c < 256) ? json.length() : 2 * json.length();
+    }
+
+    public String json() {
+        return json;
+    }
+
+    /**
+     * @return объем содержимого строки в куче, байт
+     */
+    public int memoryBytes() {
+        return memoryBytes;
+    }
+}
@@ -1,8 +1,14 @@
 package com.infosec.secureapi.service;
 
+import com.infosec.secureapi.security.AuthenticatedUser;
+import com.infosec.secureapi.security.VerifiedToken;
+import com.infosec.secureapi.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -12,64 +18,110 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
-public class JwtService {
-    @Value("${jwt.secret}")
-    private String secret;
+public class JwtService implements DisposableBean {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String CREDENTIAL_VERSION_CLAIM = "cv";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final Long expiration;
+    // Ключ и парсер создаются один раз, а не на каждый запрос
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") Long expiration,
+                      @Value("${jwt.cache.max-size:10000}") int cacheMaxSize,
+                      @Value("${jwt.cache.sweep-interval-ms:60000}") long cacheSweepIntervalMillis) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokenCache = new VerifiedTokenCache(cacheMaxSize, cacheSweepIntervalMillis);
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    /**
+     * Проверяет подпись и срок действия токена, разбирая его не более одного раза.
+     * Повторные запросы с тем же токеном обслуживаются из кэша проверенных токенов.
+     *
+     * @param token JWT из заголовка Authorization
+     * @return данные проверенного токена или null, если токен недействителен
+     */
+    public VerifiedToken verifyToken(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokenCache.get(token, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getExpiration().getTime(),
+                longClaim(claims, USER_ID_CLAIM),
+                intClaim(claims, CREDENTIAL_VERSION_CLAIM),
+                claims.getId()
+        );
+        if (verified.isExpired(now)) {
+            return null;
+        }
+        verifiedTokenCache.put(token, verified, now);
+        return verified;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Gson десериализует числа как Double, поэтому числовые claims приводятся вручную
+    private static Long longClaim(Claims claims, String name) {
+        return claims.get(name) instanceof Number number ? number.longValue() : null;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static Integer intClaim(Claims claims, String name) {
+        return claims.get(name) instanceof Number number ? number.intValue() : null;
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AuthenticatedUser user) {
+            // id и версия учетных данных позволяют фильтру обойтись без запроса к БД
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(CREDENTIAL_VERSION_CLAIM, user.getCredentialVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
+                // jti - идентификатор для отзыва токена (POST /auth/logout)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
     }
-}
 
+    @Override
+    public void destroy() {
+        verifiedTokenCache.close();
+    }
+}
@@ -0,0 +1,13 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.dto.UserCredentials;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LoginResult {
+    private final UserCredentials user;
+    // true, если пользователь был зарегистрирован этим запросом
+    private final boolean created;
+}
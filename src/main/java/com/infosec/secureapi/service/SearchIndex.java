@@ -0,0 +1,540 @@
+package com.infosec.secureapi.service;
+
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import com.infosec.secureapi.dto.DataItemText;
+import com.infosec.secureapi.repository.DataItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс в памяти по title и content элементов ленты.
+ * Документы нумеруются подряд в порядке добавления, поэтому постинги каждого слова -
+ * один массив int из пар (номер документа, вес вхождений) по возрастанию номера, без объектов на каждую запись.
+ * Поиск возвращает документы, содержащие все слова запроса, ранжированные по BM25;
+ * вхождение в заголовок весит больше, чем в текст.
+ * Индекс строится из БД при старте и дополняется после коммита создания элементов;
+ * каждый элемент индексируется один раз, сколькими бы путями он ни пришел.
+ */
+@Component
+public class SearchIndex implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Оценка накладных расходов JVM (сжатые указатели): узел HashMap со слотом таблицы,
+    // объект Postings, заголовки массива и строки
+    private static final int TERM_OVERHEAD_BYTES = 40 + 24 + 16 + 40;
+
+    private final DataItemRepository dataItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Timer queryTimer;
+    private final boolean enabled;
+    private final int bulkLoadBatchSize;
+    private final Duration reloadWindow;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<String, Postings> postings = new HashMap<>();
+    // Номер документа -> id элемента и длина документа (взвешенное число слов)
+    private long[] itemIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int docCount;
+    private long totalLength;
+    private final ItemIdSet indexedIds = new ItemIdSet();
+    // Наибольшее время создания среди проиндексированных элементов
+    private LocalDateTime newestCreatedAt;
+    private volatile long memoryBytes;
+
+    @Autowired
+    public SearchIndex(DataItemRepository dataItemRepository,
+                       PlatformTransactionManager transactionManager,
+                       ReadYourWritesTracker readYourWrites,
+                       MeterRegistry meterRegistry,
+                       @Value("${data.search.enabled:true}") boolean enabled,
+                       @Value("${data.search.bulk-load-batch-size:5000}") int bulkLoadBatchSize,
+                       @Value("${data.search.reload-window-ms:60000}") long reloadWindowMillis) {
+        this.dataItemRepository = dataItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.readYourWrites = readYourWrites;
+        this.queryTimer = Timer.builder("search.query")
+                .description("In-memory search index query time")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        this.bulkLoadBatchSize = bulkLoadBatchSize;
+        this.reloadWindow = Duration.ofMillis(reloadWindowMillis);
+        this.memoryBytes = 8L * itemIds.length + 4L * docLengths.length + indexedIds.capacityBytes();
+    }
+
+    /**
+     * Начальная загрузка до старта веб-сервера.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            loadFromDatabase();
+        }
+    }
+
+    /**
+     * Добавляет в индекс элементы из БД, созданные не раньше чем за reload-window-ms до самого нового
+     * проиндексированного (при старте - все). Id и время создания назначаются до коммита, поэтому
+     * элемент долгой транзакции появляется в БД позже более новых: окно перечитывается целиком,
+     * а уже проиндексированные элементы пропускаются по id.
+     * Следующая порция читается из БД, пока предыдущая разбирается на слова параллельно;
+     * в индекс порции добавляются по порядку (created_at, id).
+     * Нужна также после массовой записи в обход DataService (например, заполнение тестовыми данными).
+     *
+     * @return число добавленных элементов
+     */
+    public int loadFromDatabase() {
+        long startedAt = System.nanoTime();
+        int before = getDocumentCount();
+        CompletableFuture<List<AnalyzedDocument>> analyzing = CompletableFuture.completedFuture(List.of());
+        LocalDateTime newest = getNewestCreatedAt();
+        LocalDateTime lastCreatedAt = newest == null ? null : newest.minus(reloadWindow);
+        long lastId = 0;
+        while (true) {
+            final LocalDateTime afterCreatedAt = lastCreatedAt;
+            final long afterId = lastId;
+            // С основной БД: элемент, которого еще нет на реплике, не попал бы в индекс никогда
+            List<DataItemText> batch = readYourWrites.onPrimary(() -> transactionTemplate.execute(status ->
+                    afterCreatedAt == null
+                            ? dataItemRepository.findTextsFirst(Limit.of(bulkLoadBatchSize))
+                            : dataItemRepository.findTextsAfter(afterCreatedAt, afterId, Limit.of(bulkLoadBatchSize))));
+            addAll(analyzing.join());
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            DataItemText last = batch.get(batch.size() - 1);
+            lastCreatedAt = last.getCreatedAt();
+            lastId = last.getId();
+            analyzing = CompletableFuture.supplyAsync(() -> batch.parallelStream()
+                    .map(SearchIndex::analyze)
+                    .toList());
+            if (batch.size() < bulkLoadBatchSize) {
+                addAll(analyzing.join());
+                break;
+            }
+        }
+        trimPostings();
+        int added = getDocumentCount() - before;
+        log.info("Search index loaded {} documents in {} ms: {} documents, {} terms, ~{} KB total",
+                added, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                getDocumentCount(), getTermCount(), getMemoryBytes() / 1024);
+        return added;
+    }
+
+    @TransactionalEventListener
+    public void onDataItemsCreated(DataItemsCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // Разбор на слова выполняется вне блокировки, под ней только добавление в постинги
+        List<AnalyzedDocument> documents = new ArrayList<>(event.getTexts().size());
+        for (DataItemText text : event.getTexts()) {
+            documents.add(analyze(text));
+        }
+        addAll(documents);
+    }
+
+    /**
+     * @return id элементов, содержащих все слова запроса, в порядке убывания релевантности
+     * (при равной - сначала более новые), начиная с offset, и общее число найденных
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        long startedAt = System.nanoTime();
+        try {
+            Set<String> terms = queryTerms(query);
+            if (terms.isEmpty() || limit <= 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            lock.readLock().lock();
+            try {
+                return searchLocked(terms, offset, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            queryTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private SearchResult searchLocked(Set<String> terms, int offset, int limit) {
+        Postings[] lists = new Postings[terms.size()];
+        int n = 0;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new SearchResult(List.of(), 0);
+            }
+            lists[n++] = list;
+        }
+        // Пересечение начинается с самого короткого списка
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        double[] idf = new double[n];
+        for (int t = 0; t < n; t++) {
+            idf[t] = Math.log(1 + (docCount - lists[t].size + 0.5) / (lists[t].size + 0.5));
+        }
+        double averageLength = docCount == 0 ? 1 : (double) totalLength / docCount;
+
+        int window = offset + limit;
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(window, 1024) + 1, Hit.WORST_FIRST);
+        int[] cursors = new int[n];
+        int total = 0;
+        Postings lead = lists[0];
+        candidates:
+        for (int i = 0; i < lead.size; i++) {
+            int doc = lead.doc(i);
+            for (int t = 1; t < n; t++) {
+                int cursor = advance(lists[t], cursors[t], doc);
+                cursors[t] = cursor;
+                if (cursor >= lists[t].size) {
+                    break candidates;
+                }
+                if (lists[t].doc(cursor) != doc) {
+                    continue candidates;
+                }
+            }
+            total++;
+
+            double lengthNorm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+            double score = 0;
+            for (int t = 0; t < n; t++) {
+                int weight = t == 0 ? lead.weight(i) : lists[t].weight(cursors[t]);
+                score += idf[t] * weight * (K1 + 1) / (weight + lengthNorm);
+            }
+            if (top.size() < window) {
+                top.add(new Hit(doc, score));
+            } else {
+                Hit worst = top.peek();
+                // Номера документов растут, поэтому при равном счете новый документ лучше
+                if (score >= worst.score()) {
+                    top.poll();
+                    top.add(new Hit(doc, score));
+                }
+            }
+        }
+
+        Hit[] ranked = top.toArray(new Hit[0]);
+        Arrays.sort(ranked, Hit.WORST_FIRST.reversed());
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, ranked.length - offset)));
+        for (int i = offset; i < ranked.length; i++) {
+            ids.add(itemIds[ranked[i].doc]);
+        }
+        return new SearchResult(ids, total);
+    }
+
+    /**
+     * Первая позиция в постингах начиная с from, где номер документа не меньше doc.
+     * Экспоненциальный шаг, затем двоичный поиск: длинные списки не просматриваются целиком.
+     */
+    private static int advance(Postings list, int from, int doc) {
+        if (from >= list.size || list.doc(from) >= doc) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < list.size && list.doc(high) < doc) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        // Двоичный поиск первой позиции с номером не меньше doc в (low, high]
+        int left = low + 1;
+        int right = Math.min(high, list.size);
+        while (left < right) {
+            int middle = (left + right) >>> 1;
+            if (list.doc(middle) < doc) {
+                left = middle + 1;
+            } else {
+                right = middle;
+            }
+        }
+        return left;
+    }
+
+    private void addAll(List<AnalyzedDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long bytes = memoryBytes;
+            if (docCount + documents.size() > itemIds.length) {
+                int capacity = Math.max(itemIds.length + (itemIds.length >> 1), docCount + documents.size());
+                bytes += 12L * (capacity - itemIds.length);
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                docLengths = Arrays.copyOf(docLengths, capacity);
+            }
+            long idsBytes = indexedIds.capacityBytes();
+            for (AnalyzedDocument document : documents) {
+                // Элемент мог прийти и событием после коммита, и при загрузке из БД
+                if (!indexedIds.add(document.itemId)) {
+                    continue;
+                }
+                if (document.createdAt != null
+                        && (newestCreatedAt == null || document.createdAt.isAfter(newestCreatedAt))) {
+                    newestCreatedAt = document.createdAt;
+                }
+                int doc = docCount++;
+                itemIds[doc] = document.itemId;
+                docLengths[doc] = document.length;
+                totalLength += document.length;
+                for (int i = 0; i < document.terms.length; i++) {
+                    Postings list = postings.get(document.terms[i]);
+                    if (list == null) {
+                        list = new Postings();
+                        postings.put(document.terms[i], list);
+                        bytes += TERM_OVERHEAD_BYTES + document.terms[i].length() + list.capacityBytes();
+                    }
+                    bytes += list.add(doc, document.weights[i]);
+                }
+            }
+            memoryBytes = bytes + indexedIds.capacityBytes() - idsBytes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void trimPostings() {
+        lock.writeLock().lock();
+        try {
+            long bytes = memoryBytes;
+            for (Postings list : postings.values()) {
+                bytes += list.trim();
+            }
+            memoryBytes = bytes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static AnalyzedDocument analyze(DataItemText text) {
+        Map<String, int[]> counts = new HashMap<>();
+        int length = tokenize(text.getTitle(), TITLE_WEIGHT, counts) + tokenize(text.getContent(), 1, counts);
+        String[] terms = new String[counts.size()];
+        int[] weights = new int[counts.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            terms[i] = entry.getKey();
+            weights[i] = entry.getValue()[0];
+            i++;
+        }
+        return new AnalyzedDocument(text.getId(), text.getCreatedAt(), terms, weights, length);
+    }
+
+    static Set<String> queryTerms(String query) {
+        Map<String, int[]> counts = new HashMap<>();
+        tokenize(query, 1, counts);
+        return new LinkedHashSet<>(counts.keySet());
+    }
+
+    /**
+     * Слово - непрерывная последовательность букв и цифр (в т.ч. кириллица) в нижнем регистре.
+     *
+     * @return суммарный вес добавленных вхождений
+     */
+    private static int tokenize(String text, int weight, Map<String, int[]> counts) {
+        if (text == null) {
+            return 0;
+        }
+        int added = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                    counts.computeIfAbsent(term, key -> new int[1])[0] += weight;
+                    added += weight;
+                }
+                start = -1;
+            }
+        }
+        return added;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private LocalDateTime getNewestCreatedAt() {
+        lock.readLock().lock();
+        try {
+            return newestCreatedAt;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Оценка занимаемой памяти: массивы постингов и документов плюс накладные расходы на слово.
+     */
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Постинги одного слова: пары (номер документа, вес вхождений) подряд в одном массиве,
+     * номера документов по возрастанию.
+     */
+    private static final class Postings {
+        private int[] entries = new int[4];
+        private int size;
+
+        int doc(int index) {
+            return entries[index << 1];
+        }
+
+        int weight(int index) {
+            return entries[(index << 1) + 1];
+        }
+
+        /**
+         * @return прирост занимаемой памяти, байт
+         */
+        long add(int doc, int weight) {
+            long grown = 0;
+            int slot = size << 1;
+            if (slot == entries.length) {
+                int capacity = entries.length + ((size >> 1) << 1) + 2;
+                grown = 4L * (capacity - entries.length);
+                entries = Arrays.copyOf(entries, capacity);
+            }
+            entries[slot] = doc;
+            entries[slot + 1] = weight;
+            size++;
+            return grown;
+        }
+
+        /**
+         * @return изменение занимаемой памяти, байт (не положительное)
+         */
+        long trim() {
+            int used = size << 1;
+            if (used == entries.length) {
+                return 0;
+            }
+            long released = 4L * (entries.length - used);
+            entries = Arrays.copyOf(entries, used);
+            return -released;
+        }
+
+        long capacityBytes() {
+            return 4L * entries.length;
+        }
+    }
+
+    /**
+     * Множество id проиндексированных элементов: открытая адресация с линейным пробированием
+     * в одном массиве long, без объектов на каждый id. Id элементов положительны, 0 - пустая ячейка.
+     */
+    private static final class ItemIdSet {
+        private long[] slots = new long[2048];
+        private int size;
+
+        /**
+         * @return false, если id уже есть
+         */
+        boolean add(long id) {
+            // Заполнение не больше половины, иначе цепочки проб становятся длинными
+            if (size + 1 > slots.length >> 1) {
+                grow();
+            }
+            if (!insert(slots, id)) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        private void grow() {
+            long[] grown = new long[slots.length << 1];
+            for (long id : slots) {
+                if (id != 0) {
+                    insert(grown, id);
+                }
+            }
+            slots = grown;
+        }
+
+        private static boolean insert(long[] table, long id) {
+            int mask = table.length - 1;
+            int slot = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == id) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+            return true;
+        }
+
+        long capacityBytes() {
+            return 8L * slots.length;
+        }
+    }
+
+    record AnalyzedDocument(long itemId, LocalDateTime createdAt, String[] terms, int[] weights, int length) {
+    }
+
+    private record Hit(int doc, double score) {
+        // Худший результат - меньший счет, при равенстве - более старый документ
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score).thenComparingInt(Hit::doc);
+    }
+}
@@ -0,0 +1,16 @@
+package com.infosec.secureapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница результатов SearchIndex: id элементов в порядке релевантности и общее число найденных.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchResult {
+    private final List<Long> itemIds;
+    private final int total;
+}
@@ -1,8 +1,16 @@
 package com.infosec.secureapi.service;
 
+import com.infosec.secureapi.config.ReadYourWritesTracker;
+import com.infosec.secureapi.dto.UserCredentials;
 import com.infosec.secureapi.entity.User;
 import com.infosec.secureapi.repository.UserRepository;
+import com.infosec.secureapi.security.AuthenticatedUser;
+import com.infosec.secureapi.security.CredentialVersionIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,42 +18,99 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.Optional;
 
 @Service
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialVersionIndex credentialVersionIndex;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Timer loadUserTimer;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       CredentialVersionIndex credentialVersionIndex,
+                       ReadYourWritesTracker readYourWrites,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.credentialVersionIndex = credentialVersionIndex;
+        this.readYourWrites = readYourWrites;
+        this.loadUserTimer = Timer.builder("users.load.by.username")
+                .description("UserService.loadUserByUsername time")
+                .register(meterRegistry);
     }
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return loadUserTimer.record(() -> {
+            UserCredentials user = userRepository.findCredentialsByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                new ArrayList<>()
-        );
+            return AuthenticatedUser.fromCredentials(user);
+        });
     }
 
-    @Transactional
-    public User createUser(String username, String password) {
-        if (userRepository.existsByUsername(username)) {
-            throw new IllegalArgumentException("Username already exists: " + username);
+    /**
+     * Вход с автоматической регистрацией за один запрос к БД для существующего пользователя
+     * (проекция UserCredentials читается из покрывающего индекса). Пароль проверяется по уже загруженному хэшу. Новый пользователь создается одной вставкой,
+     * а нарушение уникальности имени означает, что параллельный запрос зарегистрировал его первым.
+     *
+     * При маршрутизации чтений на реплики существующий пользователь ищется на реплике, а промах
+     * перепроверяется на основной БД: пользователь мог быть зарегистрирован недавно, и реплика
+     * его еще не получила. Повторное чтение после нарушения уникальности тоже идет на основную БД.
+     *
+     * @throws BadCredentialsException если пароль не совпадает
+     */
+    public LoginResult loginOrRegister(String username, String password) {
+        Optional<UserCredentials> existing = userRepository.findCredentialsByUsername(username);
+        if (existing.isEmpty() && readYourWrites.isRoutingEnabled()) {
+            existing = readYourWrites.onPrimary(() -> userRepository.findCredentialsByUsername(username));
+        }
+        if (existing.isPresent()) {
+            return new LoginResult(checkPassword(existing.get(), password), false);
         }
 
+        try {
+            User created = createUser(username, password);
+            return new LoginResult(new UserCredentials(created.getId(), created.getUsername(),
+                    created.getUsernameHtml(), created.getPassword(), created.getCredentialVersion()), true);
+        } catch (IllegalArgumentException e) {
+            UserCredentials winner = readYourWrites.onPrimary(() -> userRepository.findCredentialsByUsername(username))
+                    .orElseThrow(() -> e);
+            return new LoginResult(checkPassword(winner, password), false);
+        }
+    }
+
+    /**
+     * Регистрация одной вставкой: уникальный индекс по username сам проверяет занятость имени,
+     * поэтому гонки между проверкой и вставкой нет.
+     *
+     * @throws IllegalArgumentException если имя уже занято
+     */
+    public User createUser(String username, String password) {
         User user = new User();
         user.setUsername(username);
+        user.setUsernameHtml(DataService.escapeHtml(username));
         user.setPassword(passwordEncoder.encode(password));
-        return userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username already exists: " + username, e);
+        }
+        credentialVersionIndex.update(saved.getId(), saved.getCredentialVersion());
+        return saved;
+    }
+
+    private UserCredentials checkPassword(UserCredentials user, String password) {
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        return user;
     }
 
     @Transactional(readOnly = true)
@@ -54,4 +119,3 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 }
-
@@ -0,0 +1,24 @@
+package com.infosec.secureapi.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Очередь группового коммита заполнена. Клиент получает 503 с Retry-After,
+ * а не ждет, пока очередь разберется.
+ */
+public class WriteQueueBusyException extends ResponseStatusException {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public WriteQueueBusyException(String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
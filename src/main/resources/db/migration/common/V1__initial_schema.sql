@@ -0,0 +1,26 @@
+-- Исходная схема (ранее создавалась Hibernate через ddl-auto=create-drop)
+
+create sequence data_items_seq start with 1 increment by 50;
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(50) not null,
+    username_html varchar(250),
+    password varchar(255) not null,
+    credential_version integer not null,
+    created_at timestamp(6) not null,
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+create table data_items (
+    id bigint not null,
+    title varchar(500) not null,
+    content varchar(2000),
+    title_html varchar(2500),
+    content_html varchar(10000),
+    user_id bigint not null,
+    created_at timestamp(6) not null,
+    constraint pk_data_items primary key (id),
+    constraint fk_data_items_user foreign key (user_id) references users (id)
+);
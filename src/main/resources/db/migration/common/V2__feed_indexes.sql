@@ -0,0 +1,7 @@
+-- Лента: ORDER BY created_at DESC, id DESC LIMIT n и keyset-условие по (created_at, id)
+-- читаются из индекса по порядку, без сортировки всей таблицы
+create index ix_data_items_feed on data_items (created_at desc, id desc);
+
+-- Лента одного автора (DataItemRepository.findByUserFirstPage/findByUserPageAfter): WHERE user_id = ?
+-- с тем же порядком и keyset-условием читается из индекса без сортировки элементов автора
+create index ix_data_items_user_feed on data_items (user_id, created_at desc, id desc);
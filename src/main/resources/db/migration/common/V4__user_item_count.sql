@@ -0,0 +1,5 @@
+-- Счетчик элементов автора для страницы профиля, чтобы не выполнять count(*) по data_items.
+-- Увеличивается в той же транзакции, что и вставка элементов
+alter table users add column item_count bigint default 0 not null;
+
+update users set item_count = (select count(*) from data_items i where i.user_id = users.id);
@@ -0,0 +1,6 @@
+-- Вход: findByUsername читает все колонки users. Покрывающий уникальный индекс
+-- позволяет выполнить его как index-only scan и заменяет обычное ограничение уникальности
+create unique index ux_users_username_login on users (username)
+    include (id, password, credential_version, username_html, created_at);
+
+alter table users drop constraint uk_users_username;
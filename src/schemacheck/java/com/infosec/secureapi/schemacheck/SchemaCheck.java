@@ -0,0 +1,55 @@
+package com.infosec.secureapi.schemacheck;
+
+import com.infosec.secureapi.SecureApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Проверка схемы для сборки: применяет миграции Flyway к пустой встроенной H2
+ * и поднимает JPA с ddl-auto=validate. Если сущность расходится с мигрированной схемой
+ * (нет таблицы, колонки, sequence или не совпадает тип), процесс завершается с кодом 1.
+ */
+public final class SchemaCheck {
+    private SchemaCheck() {
+    }
+
+    public static void main(String[] args) {
+        SpringApplication app = new SpringApplication(SecureApiApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        // Аргументы командной строки имеют приоритет над application.properties
+        String[] overrides = {
+                "--spring.datasource.url=jdbc:h2:mem:schemacheck;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                // Проверка не принимает запросов, журнал аудита ей не нужен
+                "--audit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.com.infosec=WARN",
+                "--logging.level.org.flywaydb=INFO"
+        };
+        String[] runArgs = new String[overrides.length + args.length];
+        System.arraycopy(overrides, 0, runArgs, 0, overrides.length);
+        System.arraycopy(args, 0, runArgs, overrides.length, args.length);
+
+        int exitCode;
+        try (ConfigurableApplicationContext ignored = app.run(runArgs)) {
+            System.out.println("Schema check passed: entities match the migrated schema");
+            exitCode = 0;
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            System.err.println("Schema check failed: " + cause.getMessage());
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+}
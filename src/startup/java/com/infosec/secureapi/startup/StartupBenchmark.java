@@ -0,0 +1,261 @@
+package com.infosec.secureapi.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Замер холодного старта: время от запуска JVM до первого успешного GET /api/data
+ * (вход с автоматической регистрацией, затем запрос ленты с токеном) и RSS процесса в этот момент.
+ *
+ * Приложение запускается отдельным процессом из jar, собранного mvn -Pfaststart package, на файловой H2
+ * в режиме PostgreSQL. Перед замерами выполняется обучающий запуск (spring.context.exit=onRefresh),
+ * который применяет миграции и записывает архив AppCDS, поэтому все варианты стартуют на одинаковой схеме.
+ *
+ * Варианты: default - как сейчас; faststart - профиль faststart; faststart+aot - плюс код Spring AOT;
+ * faststart+aot+cds - плюс архив классов из обучающего запуска.
+ *
+ * Аргументы: --jar путь, --runs N (3), --port P (18080), --variants имена через запятую, --timeout-seconds S (300).
+ */
+public final class StartupBenchmark {
+    private static final String MAIN_CLASS = "com.infosec.secureapi.SecureApiApplication";
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final long POLL_MILLIS = 20;
+
+    private final Path jar;
+    private final Path workDir;
+    private final Path archive;
+    private final int port;
+    private final long timeoutNanos;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark(Path jar, int port, long timeoutSeconds) {
+        this.jar = jar;
+        this.workDir = jar.toAbsolutePath().getParent().resolveSibling("startup-benchmark");
+        this.archive = workDir.resolve("application.jsa");
+        this.port = port;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        Path jar = Path.of(options.getOrDefault("jar", ""));
+        if (!Files.isRegularFile(jar)) {
+            System.err.println("Application jar not found: " + jar + " (build it with mvn -Pfaststart package)");
+            System.exit(1);
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        List<String> variants = Arrays.asList(
+                options.getOrDefault("variants", "default,faststart,faststart+aot,faststart+aot+cds").split(","));
+
+        StartupBenchmark benchmark = new StartupBenchmark(jar,
+                Integer.parseInt(options.getOrDefault("port", "18080")),
+                Long.parseLong(options.getOrDefault("timeout-seconds", "300")));
+        benchmark.prepare();
+
+        System.out.printf("Startup benchmark: %s, %d runs per variant, %d CPU%n",
+                jar.getFileName(), runs, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-20s %12s %12s %12s %12s%n", "variant", "median, ms", "min, ms", "max, ms", "RSS, MB");
+        for (String variant : variants) {
+            List<Long> millis = new ArrayList<>(runs);
+            List<Long> rssKb = new ArrayList<>(runs);
+            for (int run = 0; run < runs; run++) {
+                Sample sample = benchmark.measure(variant, run);
+                millis.add(sample.millis());
+                rssKb.add(sample.rssKb());
+            }
+            long rss = median(rssKb);
+            System.out.printf("%-20s %12d %12d %12d %12s%n", variant, median(millis),
+                    millis.stream().mapToLong(Long::longValue).min().orElse(0),
+                    millis.stream().mapToLong(Long::longValue).max().orElse(0),
+                    rss < 0 ? "n/a" : Long.toString(rss / 1024));
+        }
+        System.out.println("Logs: " + benchmark.workDir);
+    }
+
+    /**
+     * Чистая БД и обучающий запуск: миграции применяются здесь, архив AppCDS пишется при выходе JVM.
+     */
+    private void prepare() throws IOException, InterruptedException {
+        Files.createDirectories(workDir);
+        // Вложенные каталоги (журнал аудита) удаляются вместе с содержимым
+        try (Stream<Path> files = Files.walk(workDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                if (!file.equals(workDir)) {
+                    Files.delete(file);
+                }
+            }
+        }
+        List<String> command = command("faststart+aot");
+        command.add(1, "-XX:ArchiveClassesAtExit=" + archive);
+        command.add(2, "-Dspring.context.exit=onRefresh");
+        Process training = start(command, workDir.resolve("training.log"));
+        if (!training.waitFor(timeoutNanos, TimeUnit.NANOSECONDS) || training.exitValue() != 0) {
+            training.destroyForcibly();
+            throw new IllegalStateException("Training run failed, see " + workDir.resolve("training.log"));
+        }
+    }
+
+    private Sample measure(String variant, int run) throws IOException, InterruptedException {
+        Path log = workDir.resolve(variant.replace('+', '-') + "-" + run + ".log");
+        long startedAt = System.nanoTime();
+        Process process = start(command(variant), log);
+        try {
+            String token = null;
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited during startup, see " + log);
+                }
+                if (System.nanoTime() - startedAt > timeoutNanos) {
+                    throw new IllegalStateException("No successful GET /api/data before timeout, see " + log);
+                }
+                try {
+                    if (token == null) {
+                        token = login();
+                    }
+                    if (token != null && getFeed(token)) {
+                        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                        return new Sample(millis, rssKb(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // Порт еще не открыт
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private String login() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"startup\",\"password\":\"startup-password\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        // 201 - пользователь зарегистрирован этим входом
+        if (response.statusCode() != 200 && response.statusCode() != 201) {
+            return null;
+        }
+        Matcher matcher = TOKEN.matcher(response.body());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private boolean getFeed(String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/data"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private List<String> command(String variant) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        switch (variant) {
+            case "default" -> {
+            }
+            case "faststart" -> command.add("-Dspring.profiles.active=faststart");
+            case "faststart+aot" -> {
+                command.add("-Dspring.profiles.active=faststart");
+                command.add("-Dspring.aot.enabled=true");
+            }
+            case "faststart+aot+cds" -> {
+                command.add("-Dspring.profiles.active=faststart");
+                command.add("-Dspring.aot.enabled=true");
+                command.add("-XX:SharedArchiveFile=" + archive);
+            }
+            default -> throw new IllegalArgumentException("Unknown variant: " + variant);
+        }
+        command.add("-Dserver.port=" + port);
+        command.add("-Dmanagement.server.port=0");
+        command.add("-Daudit.enabled=true");
+        command.add("-Daudit.dir=" + workDir.resolve("audit").toAbsolutePath());
+        command.add("-Dspring.datasource.url=jdbc:h2:file:" + workDir.resolve("db").toAbsolutePath()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+        command.add("-Dspring.datasource.driver-class-name=org.h2.Driver");
+        command.add("-Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        // H2 дописывается после jar: архив AppCDS принимает classpath, начинающийся с classpath обучения
+        command.add("-cp");
+        command.add(jar.toAbsolutePath() + File.pathSeparator + h2Jar());
+        command.add(MAIN_CLASS);
+        return command;
+    }
+
+    private static String h2Jar() {
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (Path.of(entry).getFileName().toString().startsWith("h2-")) {
+                return entry;
+            }
+        }
+        throw new IllegalStateException("H2 driver is not on the benchmark classpath");
+    }
+
+    private Process start(List<String> command, Path log) throws IOException {
+        return new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    /**
+     * RSS процесса из /proc (Linux), -1 на других системах.
+     */
+    private static long rssKb(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException e) {
+            // Нет procfs
+        }
+        return -1;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private record Sample(long millis, long rssKb) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.infosec.secureapi.repository;
+
+import com.infosec.secureapi.dto.DataItemView;
+import com.infosec.secureapi.entity.DataItem;
+import com.infosec.secureapi.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Страница ленты через проекцию DataItemView загружается одним запросом, сколько бы авторов
+ * на ней ни было: имя автора приходит join'ом, а не отдельным SELECT на каждого (N+1).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:repository-test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "app.dotenv.enabled=false",
+        "audit.enabled=false",
+        "data.search.enabled=false",
+        "jwt.denylist.file=",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.com.infosec=INFO"
+})
+class DataItemRepositoryTest {
+    private static final int AUTHORS = 5;
+    private static final int ITEMS_PER_AUTHOR = 4;
+    private static final int PAGE_SIZE = 12;
+
+    @Autowired
+    private DataItemRepository dataItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        dataItemRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        List<DataItem> items = new ArrayList<>();
+        for (int a = 0; a < AUTHORS; a++) {
+            User user = new User();
+            user.setUsername("author" + a);
+            user.setUsernameHtml("author" + a);
+            user.setPassword("hash");
+            user = userRepository.save(user);
+            for (int i = 0; i < ITEMS_PER_AUTHOR; i++) {
+                DataItem item = new DataItem();
+                item.setTitle("title " + a + "-" + i);
+                item.setTitleHtml("title " + a + "-" + i);
+                item.setContent("content");
+                item.setContentHtml("content");
+                item.setUser(user);
+                items.add(item);
+            }
+        }
+        dataItemRepository.saveAll(items);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void feedPageOfSeveralAuthorsIsOneStatement() {
+        List<DataItemView> page = dataItemRepository.findFeedFirstPage(Limit.of(PAGE_SIZE));
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(page.stream().map(DataItemView::getUsername).collect(Collectors.toSet()))
+                .hasSizeGreaterThan(1)
+                .allSatisfy(username -> assertThat(username).startsWith("author"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void nextFeedPageIsOneStatement() {
+        List<DataItemView> first = dataItemRepository.findFeedFirstPage(Limit.of(PAGE_SIZE));
+        DataItemView last = first.get(first.size() - 1);
+        statistics.clear();
+
+        List<DataItemView> next = dataItemRepository.findFeedPageAfter(last.getCreatedAt(), last.getId(),
+                Limit.of(PAGE_SIZE));
+
+        assertThat(next).hasSize(AUTHORS * ITEMS_PER_AUTHOR - PAGE_SIZE);
+        assertThat(next).allSatisfy(view -> assertThat(view.getUsername()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void viewsByIdsAreOneStatement() {
+        List<Long> ids = dataItemRepository.findAll().stream().map(DataItem::getId).toList();
+        statistics.clear();
+
+        List<DataItemView> views = dataItemRepository.findViewsByIds(ids);
+
+        assertThat(views).hasSize(ids.size());
+        assertThat(views.stream().map(DataItemView::getUsername).distinct()).hasSize(AUTHORS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.infosec.secureapi.security;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Выбор лимита по запросу: без токена и на /auth/** - по IP, с токеном - по имени пользователя.
+ * Отказ - 429 с Retry-After в целых секундах, запрос дальше по цепочке не идет.
+ */
+class RateLimitFilterTest {
+    // client: 1 запрос/с, 2 подряд; user: 1 запрос/с, 3 подряд
+    private final RateLimitFilter filter = new RateLimitFilter(true, 1, 2, 1, 3, 100);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousClientIsLimitedByAddress() throws Exception {
+        assertThat(send("/api/data", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send("/api/data", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = send("/api/data", "10.0.0.1");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).isEqualTo("Too many requests");
+
+        assertThat(send("/api/data", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void authenticatedUsersAreLimitedByNameNotAddress() throws Exception {
+        authenticate("alice");
+        for (int i = 0; i < 3; i++) {
+            assertThat(send("/api/data", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(send("/api/data", "10.0.0.2").getStatus()).isEqualTo(429);
+
+        authenticate("bob");
+        assertThat(send("/api/data", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filter.getClientLimiter().size()).isZero();
+    }
+
+    @Test
+    void authEndpointsUseClientLimitEvenWithToken() throws Exception {
+        authenticate("alice");
+        assertThat(send("/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send("/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send("/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(filter.getUserLimiter().size()).isZero();
+    }
+
+    @Test
+    void disabledFilterPassesEveryRequest() throws Exception {
+        RateLimitFilter disabled = new RateLimitFilter(false, 1, 1, 1, 1, 100);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = request("/api/data", "10.0.0.1");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            disabled.doFilter(request, response, chain);
+            assertThat(chain.getRequest()).isSameAs(request);
+        }
+        assertThat(disabled.getClientLimiter().getAllowedCount()).isZero();
+    }
+
+    private MockHttpServletResponse send(String path, String address) throws ServletException, IOException {
+        MockHttpServletRequest request = request(path, address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        // Отклоненный запрос не доходит до контроллера
+        assertThat(chain.getRequest() != null).isEqualTo(response.getStatus() != 429);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.infosec.secureapi.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * GCRA: после простоя проходит burst запросов подряд, дальше - по одному на интервал,
+ * отказ сообщает время до следующего токена. Сверх max-keys ключи делят общие бакеты по хэшу.
+ */
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long INTERVAL = SECOND / 10;
+
+    @Test
+    void burstPassesThenRequestsAreSpacedByEmissionInterval() {
+        RateLimiter limiter = new RateLimiter(10, 3, 100);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("client", start)).isZero();
+        }
+        assertThat(limiter.tryAcquire("client", start)).isEqualTo(INTERVAL);
+        assertThat(limiter.tryAcquire("client", start + INTERVAL / 2)).isEqualTo(INTERVAL / 2);
+
+        assertThat(limiter.tryAcquire("client", start + INTERVAL)).isZero();
+        assertThat(limiter.tryAcquire("client", start + INTERVAL)).isEqualTo(INTERVAL);
+        assertThat(limiter.getAllowedCount()).isEqualTo(4);
+        assertThat(limiter.getRejectedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateMoreThanBurst() {
+        RateLimiter limiter = new RateLimiter(10, 2, 100);
+        long start = System.nanoTime();
+        limiter.tryAcquire("client", start);
+
+        long later = start + 60 * SECOND;
+        assertThat(limiter.tryAcquire("client", later)).isZero();
+        assertThat(limiter.tryAcquire("client", later)).isZero();
+        assertThat(limiter.tryAcquire("client", later)).isPositive();
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+        long start = System.nanoTime();
+
+        assertThat(limiter.tryAcquire("alice", start)).isZero();
+        assertThat(limiter.tryAcquire("alice", start)).isPositive();
+        assertThat(limiter.tryAcquire("bob", start)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keysOverLimitShareOverflowBucketsWithoutGrowingTheMap() {
+        RateLimiter limiter = new RateLimiter(1, 1, 1);
+        // Общие бакеты создаются с System.nanoTime(), время запросов не должно быть раньше
+        long start = System.nanoTime();
+        assertThat(limiter.tryAcquire("tracked", start)).isZero();
+
+        // Ключ вне карты попадает в один и тот же общий бакет при каждом запросе
+        assertThat(limiter.tryAcquire("overflow", start)).isZero();
+        assertThat(limiter.tryAcquire("overflow", start)).isPositive();
+
+        // 50 ключей на 1024 бакета: совпадений единицы, а не один бакет на всех
+        int allowed = 0;
+        for (int i = 0; i < 50; i++) {
+            if (limiter.tryAcquire("client-" + i, start) == 0) {
+                allowed++;
+            }
+        }
+        assertThat(allowed).isGreaterThanOrEqualTo(40);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictIdleRemovesOnlyKeysWithFullBurst() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+        long start = System.nanoTime();
+        limiter.tryAcquire("idle", start);
+        limiter.tryAcquire("busy", start + 5 * SECOND);
+
+        limiter.evictIdle(start + 5 * SECOND);
+
+        assertThat(limiter.size()).isEqualTo(1);
+        // Оставшийся ключ сохранил состояние: токен еще не восстановился
+        assertThat(limiter.tryAcquire("busy", start + 5 * SECOND)).isPositive();
+        assertThat(limiter.tryAcquire("idle", start + 5 * SECOND)).isZero();
+    }
+
+    @Test
+    void idleKeysAreSweptWhenNewKeyArrivesAfterSweepInterval() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2);
+        long start = System.nanoTime();
+        limiter.tryAcquire("old", start);
+
+        // До истечения интервала очистки простаивающий ключ остается в карте
+        assertThat(limiter.tryAcquire("recent", start + 30 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+
+        // Первый новый ключ после интервала удаляет оба простаивающих и занимает место в карте
+        assertThat(limiter.tryAcquire("new", start + 61 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThatThrownBy(() -> new RateLimiter(0, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.infosec.secureapi.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Отозванным считается только токен из точного множества корзины: ложное срабатывание фильтра Блума
+ * не отклоняет действующий токен. Сверх max-entries отзыв отклоняется, файл отзывов переживает перезапуск.
+ */
+class TokenDenylistTest {
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void revokedTokenIsReportedUntilItExpires() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 100, 1000, "");
+        long expiresAt = System.currentTimeMillis() + HOUR;
+
+        assertThat(denylist.revoke("jti-1", expiresAt)).isTrue();
+
+        assertThat(denylist.isRevoked("jti-1", expiresAt)).isTrue();
+        assertThat(denylist.isRevoked("jti-2", expiresAt)).isFalse();
+        // Корзина выбирается по сроку действия: тот же jti с другим сроком - другой токен
+        assertThat(denylist.isRevoked("jti-1", expiresAt + 5 * HOUR)).isFalse();
+        assertThat(denylist.getRevokedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void bloomFalsePositivesAreRejectedByExactSet() {
+        // Фильтр на одну запись: почти любой другой jti дает положительный ответ фильтра
+        TokenDenylist denylist = new TokenDenylist(HOUR, 1, 1000, "");
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        denylist.revoke("revoked", expiresAt);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(denylist.isRevoked("token-" + i, expiresAt)).isFalse();
+        }
+        assertThat(denylist.getBloomPositiveCount()).isPositive();
+    }
+
+    @Test
+    void filterGrowsWithBucketAndKeepsFalsePositivesLow() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 10, 100_000, "");
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 1000; i++) {
+            assertThat(denylist.revoke("revoked-" + i, expiresAt)).isTrue();
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertThat(denylist.isRevoked("revoked-" + i, expiresAt)).isTrue();
+        }
+        long positivesBefore = denylist.getBloomPositiveCount();
+
+        for (int i = 0; i < 10_000; i++) {
+            denylist.isRevoked("active-" + i, expiresAt);
+        }
+
+        // Фильтр на 10 записей без перестроения отвечал бы "возможно" почти на каждый jti
+        assertThat(denylist.getBloomPositiveCount() - positivesBefore).isLessThan(500);
+        assertThat(denylist.getEntryCount()).isEqualTo(1000);
+    }
+
+    @Test
+    void revocationsOverMaxEntriesAreRejected() {
+        TokenDenylist denylist = new TokenDenylist(HOUR, 100, 3, "");
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 3; i++) {
+            assertThat(denylist.revoke("jti-" + i, expiresAt)).isTrue();
+        }
+
+        assertThat(denylist.revoke("jti-3", expiresAt)).isFalse();
+        assertThat(denylist.isRevoked("jti-3", expiresAt)).isFalse();
+        assertThat(denylist.getRejectedCount()).isEqualTo(1);
+
+        // Повторный выход и истекший токен места не занимают и не отклоняются
+        assertThat(denylist.revoke("jti-0", expiresAt)).isTrue();
+        assertThat(denylist.revoke("expired", System.currentTimeMillis() - 1)).isTrue();
+        assertThat(denylist.getEntryCount()).isEqualTo(3);
+        assertThat(denylist.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredBucketsFreeRoomForNewRevocations() throws InterruptedException {
+        TokenDenylist denylist = new TokenDenylist(10, 100, 1, "");
+        assertThat(denylist.revoke("short", System.currentTimeMillis() + 20)).isTrue();
+        assertThat(denylist.revoke("blocked", System.currentTimeMillis() + HOUR)).isFalse();
+
+        Thread.sleep(50);
+
+        assertThat(denylist.revoke("later", System.currentTimeMillis() + HOUR)).isTrue();
+        assertThat(denylist.getBucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void revocationsSurviveRestartThroughFile() throws Exception {
+        Path file = directory.resolve("denylist/revoked-tokens.log");
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        TokenDenylist first = new TokenDenylist(HOUR, 100, 1000, file.toString());
+        first.revoke("jti-1", expiresAt);
+        first.revoke("jti-2", expiresAt);
+        first.destroy();
+
+        TokenDenylist restarted = new TokenDenylist(HOUR, 100, 1000, file.toString());
+
+        assertThat(restarted.isRevoked("jti-1", expiresAt)).isTrue();
+        assertThat(restarted.isRevoked("jti-2", expiresAt)).isTrue();
+        assertThat(restarted.isRevoked("jti-3", expiresAt)).isFalse();
+        restarted.destroy();
+    }
+
+    @Test
+    void reloadSkipsExpiredDuplicateAndMalformedLines() throws Exception {
+        Path file = directory.resolve("revoked-tokens.log");
+        long now = System.currentTimeMillis();
+        long expiresAt = now + HOUR;
+        Files.write(file, List.of(
+                (now - HOUR) + " expired",
+                expiresAt + " valid",
+                expiresAt + " valid",
+                "not-a-number broken",
+                "no-separator",
+                expiresAt + " "
+        ), StandardCharsets.UTF_8);
+
+        TokenDenylist denylist = new TokenDenylist(HOUR, 100, 1000, file.toString());
+
+        assertThat(denylist.isRevoked("valid", expiresAt)).isTrue();
+        assertThat(denylist.isRevoked("expired", now - HOUR)).isFalse();
+        assertThat(denylist.getEntryCount()).isEqualTo(1);
+        // Файл переписан без истекших и поврежденных строк, новые отзывы дописываются в конец
+        denylist.revoke("appended", expiresAt);
+        denylist.destroy();
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly(expiresAt + " valid", expiresAt + " appended");
+    }
+}
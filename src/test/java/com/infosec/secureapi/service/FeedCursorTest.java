@@ -0,0 +1,72 @@
+package com.infosec.secureapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Курсор восстанавливает ту же позицию (createdAt, id), а испорченная строка от клиента
+ * дает IllegalArgumentException (ответ 400), а не ошибку разбора или сервера.
+ */
+class FeedCursorTest {
+
+    @Test
+    void roundTripKeepsPosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_932);
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripKeepsWholeMinutesAndLargeIds() {
+        // LocalDateTime.toString опускает нулевые секунды: "2026-01-01T00:00"
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+        FeedCursor decoded = FeedCursor.decode(new FeedCursor(createdAt, Long.MAX_VALUE).encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = new FeedCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 999_999_999), 1L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "%%%", "YWJj=="})
+    void malformedEncodingIsRejected(String token) {
+        assertThatThrownBy(() -> FeedCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2026-03-14T15:09:26",
+            "2026-03-14T15:09:26|",
+            "2026-03-14T15:09:26|abc",
+            "2026-03-14T15:09:26|99999999999999999999",
+            "2026-13-14T15:09:26|1",
+            "yesterday|1",
+            "|1",
+            "2026-03-14T15:09:26|1|2"
+    })
+    void tamperedContentIsRejected(String raw) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> FeedCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}